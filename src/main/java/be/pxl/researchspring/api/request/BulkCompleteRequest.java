@@ -0,0 +1,10 @@
+package be.pxl.researchspring.api.request;
+
+import jakarta.validation.constraints.NotNull;
+
+public class BulkCompleteRequest extends BulkIdsRequest {
+    @NotNull(message = "completed cannot be null")
+    private Boolean completed;
+
+    public Boolean getCompleted() {return this.completed;}
+}
@@ -0,0 +1,22 @@
+package be.pxl.researchspring.api.request;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// The body is the JSON array of titles itself
+public class BulkCreateRequest {
+    @NotEmpty(message = "titles cannot be empty")
+    @Size(max = 10_000, message = "at most 10000 titles per request")
+    private final List<@NotBlank(message = "title cannot be blank") String> titles;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public BulkCreateRequest(List<String> titles) {
+        this.titles = titles;
+    }
+
+    public List<String> getTitles() {return this.titles;}
+}
@@ -0,0 +1,15 @@
+package be.pxl.researchspring.api.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkIdsRequest {
+    @NotEmpty(message = "ids cannot be empty")
+    @Size(max = 100_000, message = "at most 100000 ids per request")
+    private List<@NotNull Long> ids;
+
+    public List<Long> getIds() {return this.ids;}
+}
@@ -0,0 +1,7 @@
+package be.pxl.researchspring.api.response;
+
+public enum BulkOutcome {
+    UPDATED,
+    DELETED,
+    NOT_FOUND
+}
@@ -0,0 +1,22 @@
+package be.pxl.researchspring.api.response;
+
+import java.util.Map;
+
+public class BulkResultDTO {
+    private int affected;
+    private Map<Long, BulkOutcome> outcomes;
+
+    public BulkResultDTO() {
+        super();
+    }
+
+    public BulkResultDTO(Map<Long, BulkOutcome> outcomes) {
+        this.outcomes = outcomes;
+        this.affected = (int) outcomes.values().stream()
+                .filter(outcome -> outcome != BulkOutcome.NOT_FOUND)
+                .count();
+    }
+
+    public int getAffected() {return affected;}
+    public Map<Long, BulkOutcome> getOutcomes() {return outcomes;}
+}
@@ -0,0 +1,23 @@
+package be.pxl.researchspring.api.response;
+
+import java.util.List;
+
+public class TodoChangesDTO {
+    private List<TodoDTO> upserts;
+    private List<Long> deleted;
+    private long token;
+
+    public TodoChangesDTO() {
+        super();
+    }
+
+    public TodoChangesDTO(List<TodoDTO> upserts, List<Long> deleted, long token) {
+        this.upserts = upserts;
+        this.deleted = deleted;
+        this.token = token;
+    }
+
+    public List<TodoDTO> getUpserts() {return upserts;}
+    public List<Long> getDeleted() {return deleted;}
+    public long getToken() {return token;}
+}
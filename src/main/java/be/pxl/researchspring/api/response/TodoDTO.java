@@ -6,18 +6,29 @@ public class TodoDTO {
     private long id;
     private String title;
     private boolean completed;
+    private long version;
 
     public TodoDTO() {
         super();
     }
 
+    // Used by JPQL constructor expressions so reads skip managed entities entirely
+    public TodoDTO(long id, String title, boolean completed, long version) {
+        this.id = id;
+        this.title = title;
+        this.completed = completed;
+        this.version = version;
+    }
+
     public TodoDTO(Todo todo) {
         this.id = todo.getId();
         this.title = todo.getTitle();
         this.completed = todo.isCompleted();
+        this.version = todo.getVersion() == null ? 0 : todo.getVersion();
     }
 
     public long getId() {return id;}
     public String getTitle() {return title;}
     public boolean isCompleted() {return completed;}
+    public long getVersion() {return version;}
 }
@@ -0,0 +1,37 @@
+package be.pxl.researchspring.api.response;
+
+public class TodoEventDTO {
+    private TodoEventType type;
+    private Long id;
+    private TodoDTO todo;
+
+    public TodoEventDTO() {
+        super();
+    }
+
+    public TodoEventDTO(TodoEventType type, Long id, TodoDTO todo) {
+        this.type = type;
+        this.id = id;
+        this.todo = todo;
+    }
+
+    public static TodoEventDTO created(TodoDTO todo) {
+        return new TodoEventDTO(TodoEventType.CREATED, todo.getId(), todo);
+    }
+
+    public static TodoEventDTO updated(TodoDTO todo) {
+        return new TodoEventDTO(TodoEventType.UPDATED, todo.getId(), todo);
+    }
+
+    public static TodoEventDTO deleted(Long id) {
+        return new TodoEventDTO(TodoEventType.DELETED, id, null);
+    }
+
+    public static TodoEventDTO resync() {
+        return new TodoEventDTO(TodoEventType.RESYNC, null, null);
+    }
+
+    public TodoEventType getType() {return type;}
+    public Long getId() {return id;}
+    public TodoDTO getTodo() {return todo;}
+}
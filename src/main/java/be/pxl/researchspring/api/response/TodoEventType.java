@@ -0,0 +1,9 @@
+package be.pxl.researchspring.api.response;
+
+public enum TodoEventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // Too much changed to describe event by event; fetch GET /todos/changes instead
+    RESYNC
+}
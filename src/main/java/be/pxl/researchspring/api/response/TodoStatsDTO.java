@@ -0,0 +1,21 @@
+package be.pxl.researchspring.api.response;
+
+public class TodoStatsDTO {
+    private long total;
+    private long completed;
+    private long open;
+
+    public TodoStatsDTO() {
+        super();
+    }
+
+    public TodoStatsDTO(long total, long completed) {
+        this.total = total;
+        this.completed = completed;
+        this.open = total - completed;
+    }
+
+    public long getTotal() {return total;}
+    public long getCompleted() {return completed;}
+    public long getOpen() {return open;}
+}
@@ -1,32 +1,86 @@
 package be.pxl.researchspring.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 
 @Configuration
 @EnableAsync
 @EnableRetry
 public class AsyncConfig {
+    public static final String THREAD_NAME_PREFIX = "TodoAsync-";
+    private static final long QUEUE_POLL_MILLIS = 100;
+    // Set while AsyncAdmissionControl dispatches from a request thread
+    private static final ThreadLocal<Boolean> REJECT_WHEN_FULL = ThreadLocal.withInitial(() -> false);
+
     @Bean(name= "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(@Value("${todo.async.mode:platform}") String mode) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            return virtualThreadExecutor();
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(4);
         executor.setQueueCapacity(500);
-        executor.setThreadNamePrefix("TodoAsync-");
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
 
-        // Use CallerRunsPolicy to handle rejected tasks
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // Never run work on the submitting thread. A full queue makes in-process callers wait for
+        // space; request threads are rejected at once so AsyncAdmissionControl can answer 429
+        executor.setRejectedExecutionHandler(AsyncConfig::waitForQueueSpace);
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Submits through {@code submit} so that a full TodoAsync queue rejects the task immediately
+     * instead of parking the calling thread until space frees up.
+     */
+    public static <T> T rejectingWhenFull(Supplier<T> submit) {
+        REJECT_WHEN_FULL.set(true);
+        try {
+            return submit.get();
+        } finally {
+            REJECT_WHEN_FULL.remove();
+        }
+    }
+
+    private static void waitForQueueSpace(Runnable task, ThreadPoolExecutor executor) {
+        if (REJECT_WHEN_FULL.get()) {
+            throw new RejectedExecutionException("TodoAsync queue is full");
+        }
+        try {
+            // Polls so a shutdown releases waiting callers
+            while (!executor.isShutdown()) {
+                if (executor.getQueue().offer(task, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for TodoAsync queue space", e);
+        }
+        throw new RejectedExecutionException("TodoAsync executor is shut down");
+    }
+
+    // One virtual thread per task: blocking on JDBC no longer pins a scarce pool thread,
+    // the Hikari pool becomes the only concurrency limit
+    private Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(60_000);
+        return executor;
+    }
 }
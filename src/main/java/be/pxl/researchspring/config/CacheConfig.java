@@ -0,0 +1,22 @@
+package be.pxl.researchspring.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+@Configuration
+public class CacheConfig {
+    public static final String TODOS_CACHE = "todos";
+    public static final String TODO_CACHE = "todo";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${todo.cache.spec}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(TODOS_CACHE, TODO_CACHE);
+        cacheManager.setCacheSpecification(spec);
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
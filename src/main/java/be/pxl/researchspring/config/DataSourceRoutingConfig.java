@@ -0,0 +1,66 @@
+package be.pxl.researchspring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Splits the single pool into a primary pool for writes and a replica pool for read-only
+ * TodoService operations, so heavy read traffic cannot starve writes of connections.
+ * Both pools are beans of their own and report Hikari metrics under their pool name.
+ */
+@Configuration
+@Profile("!memory")
+@ConditionalOnProperty(name = "todo.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("todo.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${todo.datasource.replica.url}") String url,
+                                              @Value("${todo.datasource.replica.username}") String username,
+                                              @Value("${todo.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        // A write that ends up here by mistake fails instead of diverging from the primary
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // What JPA, JdbcTemplate and the SQL init scripts get; outside a read-only transaction it is the primary
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Target.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
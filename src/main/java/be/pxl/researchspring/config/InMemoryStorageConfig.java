@@ -0,0 +1,18 @@
+package be.pxl.researchspring.config;
+
+import be.pxl.researchspring.repository.memory.InMemoryTransactionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+
+// The memory profile runs without a datasource, so JPA's transaction manager is not there
+@Configuration
+@Profile("memory")
+public class InMemoryStorageConfig {
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new InMemoryTransactionManager();
+    }
+}
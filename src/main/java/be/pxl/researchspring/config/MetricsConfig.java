@@ -0,0 +1,179 @@
+package be.pxl.researchspring.config;
+
+import be.pxl.researchspring.controller.AsyncAdmissionControl;
+import be.pxl.researchspring.controller.ReactiveTodoEventFeed;
+import be.pxl.researchspring.controller.ReadYourWritesFilter;
+import be.pxl.researchspring.controller.TodoEventBroadcaster;
+import be.pxl.researchspring.controller.TodoEventFeed;
+import be.pxl.researchspring.service.impl.CompletionWriteBehindBuffer;
+import be.pxl.researchspring.service.impl.GroupCommitTodoWriter;
+import be.pxl.researchspring.service.impl.TodoArchiver;
+import be.pxl.researchspring.service.impl.TodoRetryListener;
+import be.pxl.researchspring.service.impl.TodoStatsCounter;
+import be.pxl.researchspring.service.impl.TodoTitleIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+
+@Configuration
+public class MetricsConfig {
+    @Bean
+    public MeterBinder retryMetrics(TodoRetryListener retryListener) {
+        return registry -> {
+            FunctionCounter.builder("todo.retry.attempts", retryListener, TodoRetryListener::getRetries)
+                    .description("Retried attempts of @Retryable service methods")
+                    .register(registry);
+            FunctionCounter.builder("todo.retry.exhausted", retryListener, TodoRetryListener::getExhausted)
+                    .description("Calls that failed after exhausting all retries")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder asyncExecutorMetrics(@Qualifier("taskExecutor") Executor taskExecutor) {
+        return registry -> {
+            if (taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+                Gauge.builder("todo.async.executor.active", pool, ThreadPoolTaskExecutor::getActiveCount)
+                        .description("Threads of the TodoAsync- pool running a task")
+                        .register(registry);
+                Gauge.builder("todo.async.executor.queued", pool, ThreadPoolTaskExecutor::getQueueSize)
+                        .description("Tasks waiting in the TodoAsync- queue")
+                        .register(registry);
+                Gauge.builder("todo.async.executor.pool.size", pool, ThreadPoolTaskExecutor::getPoolSize)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(AsyncAdmissionControl admissionControl) {
+        return registry -> {
+            Gauge.builder("todo.admission.in.flight", admissionControl, AsyncAdmissionControl::getInFlight)
+                    .register(registry);
+            Gauge.builder("todo.admission.queue.depth", admissionControl, AsyncAdmissionControl::getQueueDepth)
+                    .register(registry);
+            Gauge.builder("todo.admission.clients", admissionControl, AsyncAdmissionControl::getTrackedClients)
+                    .register(registry);
+            FunctionCounter.builder("todo.admission.admitted", admissionControl, AsyncAdmissionControl::getAdmitted)
+                    .register(registry);
+            FunctionCounter.builder("todo.admission.rejected", admissionControl, AsyncAdmissionControl::getRejectedInFlight)
+                    .tag("reason", "in-flight")
+                    .register(registry);
+            FunctionCounter.builder("todo.admission.rejected", admissionControl, AsyncAdmissionControl::getRejectedRateLimited)
+                    .tag("reason", "rate-limit")
+                    .register(registry);
+            FunctionCounter.builder("todo.admission.rejected", admissionControl, AsyncAdmissionControl::getRejectedByExecutor)
+                    .tag("reason", "executor")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder groupCommitMetrics(GroupCommitTodoWriter writer) {
+        return registry -> {
+            Gauge.builder("todo.group.commit.queue.depth", writer, GroupCommitTodoWriter::getQueueDepth)
+                    .register(registry);
+            FunctionCounter.builder("todo.group.commit.groups", writer, GroupCommitTodoWriter::getGroupsCommitted)
+                    .description("Committed groups; rate() of this is the commit rate")
+                    .register(registry);
+            FunctionCounter.builder("todo.group.commit.todos", writer, GroupCommitTodoWriter::getTodosCommitted)
+                    .register(registry);
+            FunctionCounter.builder("todo.group.commit.failures", writer, GroupCommitTodoWriter::getGroupsFailed)
+                    .register(registry);
+            FunctionCounter.builder("todo.group.commit.cancelled", writer, GroupCommitTodoWriter::getCreatesCancelled)
+                    .description("Creates withdrawn after their caller timed out")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder writeBehindMetrics(CompletionWriteBehindBuffer buffer) {
+        return registry -> {
+            Gauge.builder("todo.write.behind.pending", buffer, CompletionWriteBehindBuffer::getPendingCount)
+                    .register(registry);
+            FunctionCounter.builder("todo.write.behind.toggles", buffer, CompletionWriteBehindBuffer::getTogglesAccepted)
+                    .register(registry);
+            FunctionCounter.builder("todo.write.behind.flushed.rows", buffer, CompletionWriteBehindBuffer::getRowsFlushed)
+                    .register(registry);
+            FunctionCounter.builder("todo.write.behind.flushes", buffer, CompletionWriteBehindBuffer::getFlushes)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder eventFeedMetrics(TodoEventBroadcaster broadcaster) {
+        return registry -> bindEventFeed(registry, "todo.events", broadcaster);
+    }
+
+    // The reactive profile's feed; r2dbc.pool.* metrics come with its connection pool
+    @Bean
+    public MeterBinder reactiveEventFeedMetrics(ObjectProvider<ReactiveTodoEventFeed> feed) {
+        return registry -> feed.ifAvailable(eventFeed -> bindEventFeed(registry, "todo.reactive.events", eventFeed));
+    }
+
+    private static void bindEventFeed(MeterRegistry registry, String prefix, TodoEventFeed<?> feed) {
+        Gauge.builder(prefix + ".subscribers", feed, TodoEventFeed::getSubscriberCount)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".published", feed, TodoEventFeed::getPublished)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".dropped", feed, TodoEventFeed::getDropped)
+                .description("Events discarded from slow subscribers' buffers and replaced by a resync")
+                .register(registry);
+        FunctionCounter.builder(prefix + ".rejected", feed, TodoEventFeed::getRejected)
+                .description("Subscriptions refused because the subscriber limit was reached")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder statsMetrics(TodoStatsCounter stats) {
+        return registry -> {
+            FunctionCounter.builder("todo.stats.drift", stats, TodoStatsCounter::getDrift)
+                    .description("Corrections applied to the todo counters by reconciliation")
+                    .register(registry);
+            FunctionCounter.builder("todo.stats.reconcile.skipped", stats, TodoStatsCounter::getSkippedRuns)
+                    .description("Reconciliation runs skipped because writes were in flight")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder titleIndexMetrics(TodoTitleIndex titleIndex) {
+        return registry -> Gauge.builder("todo.search.index.size", titleIndex, TodoTitleIndex::size)
+                .description("Todos held by the in-process title index")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder archiveMetrics(ObjectProvider<TodoArchiver> archiver) {
+        return registry -> archiver.ifAvailable(todoArchiver -> {
+            FunctionCounter.builder("todo.archive.rows", todoArchiver, TodoArchiver::getRowsArchived)
+                    .description("Completed todos moved from the live table to the archive")
+                    .register(registry);
+            FunctionCounter.builder("todo.archive.batches", todoArchiver, TodoArchiver::getBatches)
+                    .register(registry);
+            FunctionCounter.builder("todo.archive.deferrals", todoArchiver, TodoArchiver::getDeferrals)
+                    .description("Runs cut short because foreground requests were waiting for a connection")
+                    .register(registry);
+            Gauge.builder("todo.archive.last.run.rows", todoArchiver, TodoArchiver::getLastRunRows)
+                    .register(registry);
+        });
+    }
+
+    // Pool metrics per side (hikaricp.*, tagged pool=primary|replica) come with the pools themselves
+    @Bean
+    public MeterBinder readYourWritesMetrics(ObjectProvider<ReadYourWritesFilter> filter) {
+        return registry -> filter.ifAvailable(readYourWrites ->
+                FunctionCounter.builder("todo.datasource.reads.pinned", readYourWrites, ReadYourWritesFilter::getPinnedRequests)
+                        .description("Requests sent to the primary because their client wrote within the replica lag")
+                        .register(registry));
+    }
+}
@@ -0,0 +1,104 @@
+package be.pxl.researchspring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * The reactive profile serves the API from WebFlux over an R2DBC pool. JPA stays for what does
+ * not sit on a request path: creating the schema and the scheduled jobs (stats reconciliation,
+ * tombstone pruning, archiving).
+ * <p>
+ * Once there is an R2DBC pool, Boot no longer creates the JDBC pool, would run the schema scripts
+ * over R2DBC before Hibernate creates the tables, and would let the R2DBC transaction manager
+ * replace JPA's; all three are declared here so each stack keeps its own.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties({DataSourceProperties.class, SqlInitializationProperties.class})
+public class ReactiveStackConfig {
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked first
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionPool(@Value("${todo.reactive.r2dbc.url}") String url,
+                                                 @Value("${todo.reactive.r2dbc.username}") String username,
+                                                 @Value("${todo.reactive.r2dbc.password}") String password,
+                                                 @Value("${todo.reactive.r2dbc.pool.max-size}") int maxSize,
+                                                 @Value("${todo.reactive.r2dbc.pool.max-acquire-time-ms}") long maxAcquireTimeMillis) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("reactive")
+                .initialSize(Math.min(2, maxSize))
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(maxAcquireTimeMillis))
+                .build());
+    }
+
+    // With a replica, DataSourceRoutingConfig builds the JDBC pools instead
+    @Bean
+    @ConditionalOnProperty(name = "todo.datasource.replica.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public ReactiveTransactionManager reactiveTransactionManager(ConnectionFactory connectionFactory) {
+        return new R2dbcTransactionManager(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator(ReactiveTransactionManager reactiveTransactionManager) {
+        return TransactionalOperator.create(reactiveTransactionManager);
+    }
+
+    // What @Transactional resolves to; reactive code uses the TransactionalOperator instead
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                     SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+}
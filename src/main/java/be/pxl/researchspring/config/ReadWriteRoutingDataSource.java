@@ -0,0 +1,49 @@
+package be.pxl.researchspring.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * The transaction's read-only flag is only known once it has started, so this must sit behind
+ * a LazyConnectionDataSourceProxy, which defers the choice to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Target {PRIMARY, REPLICA}
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    // Routes the current thread's reads to the primary too, for clients that must see their own writes
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    /**
+     * Runs a load on the primary even in a read-only transaction, for results that are kept
+     * beyond the request. Only affects transactions that have not run a statement yet.
+     */
+    public static <T> T onPrimary(Supplier<T> load) {
+        if (PINNED.get() != null) {
+            return load.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return load.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED.get() == null
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+}
@@ -0,0 +1,84 @@
+package be.pxl.researchspring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+
+/**
+ * Binary alternatives to JSON, chosen per request through Accept and Content-Type:
+ * application/x-jackson-smile and application/cbor. They are built from Boot's Jackson builder,
+ * so they serialize exactly what the JSON converter does, and replace the defaults Spring MVC
+ * would otherwise create with a plain builder.
+ * <p>
+ * The reactive stack gets the same formats as codecs. WebFlux has no CBOR codec by default, and
+ * the CBOR encoder only writes whole values, which is why the reactive controller returns
+ * collections as one list rather than a stream. Added codecs are consulted before the default
+ * ones, so JSON is added again in front of CBOR to stay the format for clients accepting any.
+ */
+@Configuration
+public class WireFormatConfig {
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer binaryFormatCodecCustomizer(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper));
+            configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().register(new Jackson2JsonDecoder(objectMapper));
+            configurer.customCodecs().register(new SingleValueCborEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    // Jackson2CborEncoder only implements encodeValue, while the message writer always calls encode
+    private static final class SingleValueCborEncoder extends Jackson2CborEncoder {
+        SingleValueCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (!(inputStream instanceof Mono<?> value)) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            return value.map(item -> encodeValue(item, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.config.AsyncConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for the async endpoints. Work is only dispatched when an in-flight slot
+ * (and, if enabled, a token from the client's bucket) is available; otherwise the request is
+ * rejected immediately instead of being run on the request thread. A saturated executor is
+ * rejected immediately too, where in-process callers of the async service methods would wait
+ * for queue space.
+ */
+@Component
+public class AsyncAdmissionControl {
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final boolean rateLimitEnabled;
+    private final double permitsPerSecond;
+    private final double burst;
+    private final Executor taskExecutor;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedInFlight = new LongAdder();
+    private final LongAdder rejectedRateLimited = new LongAdder();
+    private final LongAdder rejectedByExecutor = new LongAdder();
+
+    public AsyncAdmissionControl(@Value("${todo.admission.max-in-flight:500}") int maxInFlight,
+                                 @Value("${todo.admission.rate-limit.enabled:false}") boolean rateLimitEnabled,
+                                 @Value("${todo.admission.rate-limit.permits-per-second:50}") double permitsPerSecond,
+                                 @Value("${todo.admission.rate-limit.burst:100}") double burst,
+                                 @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public <T> CompletableFuture<T> submit(HttpServletRequest request, Supplier<CompletableFuture<T>> work) {
+        if (rateLimitEnabled) {
+            long now = System.nanoTime();
+            long waitNanos = buckets
+                    .computeIfAbsent(clientKey(request), key -> new TokenBucket(burst, permitsPerSecond, now))
+                    .tryAcquire(now);
+            if (waitNanos > 0) {
+                rejectedRateLimited.increment();
+                throw new AdmissionRejectedException("Rate limit exceeded", toRetryAfterSeconds(waitNanos));
+            }
+        }
+        if (!inFlight.tryAcquire()) {
+            rejectedInFlight.increment();
+            throw new AdmissionRejectedException("Too many requests in flight", 1);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = AsyncConfig.rejectingWhenFull(work);
+        } catch (TaskRejectedException e) {
+            inFlight.release();
+            rejectedByExecutor.increment();
+            throw new AdmissionRejectedException("Async executor is saturated", 1);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        admitted.increment();
+        return future.whenComplete((result, throwable) -> inFlight.release());
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    static String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public int getQueueDepth() {
+        if (taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+            return pool.getQueueSize();
+        }
+        return 0;
+    }
+
+    public int getTrackedClients() {
+        return buckets.size();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejectedInFlight() {
+        return rejectedInFlight.sum();
+    }
+
+    public long getRejectedRateLimited() {
+        return rejectedRateLimited.sum();
+    }
+
+    public long getRejectedByExecutor() {
+        return rejectedByExecutor.sum();
+    }
+}
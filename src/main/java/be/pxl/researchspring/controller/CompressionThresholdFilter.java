@@ -0,0 +1,103 @@
+package be.pxl.researchspring.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Makes {@code server.compression.min-response-size} apply to message converter responses.
+ * Tomcat only knows a response's length, and so whether it is below the threshold, when the
+ * whole body is still in its buffer at the end of the request; the flush every converter does
+ * after writing would commit it before that. Flushes are therefore left to the container, except
+ * on event streams, which have to reach the client event by event.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, new DeferredFlushResponse(response));
+    }
+
+    private static class DeferredFlushResponse extends HttpServletResponseWrapper {
+        private ServletOutputStream outputStream;
+
+        DeferredFlushResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (isEventStream()) {
+                super.flushBuffer();
+            }
+        }
+
+        boolean isEventStream() {
+            String contentType = getContentType();
+            return contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        }
+    }
+
+    private static class DeferredFlushOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final DeferredFlushResponse response;
+
+        DeferredFlushOutputStream(ServletOutputStream delegate, DeferredFlushResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (response.isEventStream()) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
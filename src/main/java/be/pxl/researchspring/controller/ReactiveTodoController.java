@@ -0,0 +1,183 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.request.BulkCompleteRequest;
+import be.pxl.researchspring.api.request.BulkCreateRequest;
+import be.pxl.researchspring.api.request.BulkIdsRequest;
+import be.pxl.researchspring.api.request.CreateTodoRequest;
+import be.pxl.researchspring.api.response.BulkResultDTO;
+import be.pxl.researchspring.api.response.TodoChangesDTO;
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoStatsDTO;
+import be.pxl.researchspring.service.ReactiveTodoService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static be.pxl.researchspring.controller.TodoControllerSupport.*;
+
+/**
+ * The endpoints of {@link TodoController} for the reactive profile, with the same status codes,
+ * headers and version rules. The /async routes are kept for clients that use them; here they
+ * are the same handlers, as no request waits on a thread of its own.
+ */
+@RestController
+@RequestMapping("/todos")
+@Profile("reactive")
+public class ReactiveTodoController {
+    private final ReactiveTodoService todoService;
+    private final ReactiveTodoEventFeed eventFeed;
+
+    public ReactiveTodoController(ReactiveTodoService todoService, ReactiveTodoEventFeed eventFeed) {
+        this.todoService = todoService;
+        this.eventFeed = eventFeed;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<TodoDTO>>> getAllTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            ServerWebExchange exchange)
+    {
+        if (after == null && limit == null) {
+            // Resolve the ETag before the body so unchanged collections are never loaded
+            String version = todoService.getTodosVersion();
+            String etag = "W/\"" + version + "\"";
+            if (exchange.checkNotModified(etag)) {
+                return Mono.empty();
+            }
+            return todoService.getAllTodos().map(todos -> ResponseEntity.ok().eTag(etag).body(todos));
+        }
+        int pageSize = pageSize(limit);
+        return todoService.getTodosAfter(after, pageSize).map(page -> page(page, pageSize));
+    }
+
+    @GetMapping("/archive")
+    public Mono<ResponseEntity<List<TodoDTO>>> getArchivedTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit)
+    {
+        int pageSize = pageSize(limit);
+        return todoService.getArchivedTodosAfter(after, pageSize).map(page -> page(page, pageSize));
+    }
+
+    @GetMapping("/archive/{id}")
+    public Mono<ResponseEntity<TodoDTO>> getArchivedTodo(@PathVariable Long id) {
+        return todoService.getArchivedTodo(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<TodoDTO>>> searchTodos(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit)
+    {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        int pageSize = pageSize(limit);
+        return todoService.search(q, prefix, after, pageSize).map(page -> page(page, pageSize));
+    }
+
+    @GetMapping("/changes")
+    public Mono<ResponseEntity<TodoChangesDTO>> getChanges(@RequestParam(defaultValue = "0") long since) {
+        return todoService.getChangesSince(since).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<TodoStatsDTO>> getStats() {
+        return todoService.getStats().map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return eventFeed.subscribe(lastEventId != null);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TodoDTO>> getTodo(@PathVariable Long id) {
+        return todoService.getTodo(id)
+                .map(todo -> ResponseEntity.ok().eTag(String.valueOf(todo.getVersion())).body(todo));
+    }
+
+    // Rows are encoded as they arrive from the database cursor
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<TodoDTO> streamTodos() {
+        return todoService.streamTodos();
+    }
+
+    @PostMapping(params = "title")
+    public Mono<ResponseEntity<TodoDTO>> createTodo(@RequestParam String title) {
+        return todoService.create(title).map(todo -> ResponseEntity.status(HttpStatus.CREATED).body(todo));
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, TodoController.SMILE_VALUE})
+    public Mono<ResponseEntity<TodoDTO>> createTodo(@Valid @RequestBody CreateTodoRequest request) {
+        return todoService.create(request.getTitle()).map(todo -> ResponseEntity.status(HttpStatus.CREATED).body(todo));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<TodoDTO>>> createTodos(@Valid @RequestBody BulkCreateRequest request) {
+        return todoService.createAll(request.getTitles()).map(todos -> ResponseEntity.status(HttpStatus.CREATED).body(todos));
+    }
+
+    @PostMapping("/async")
+    public Mono<ResponseEntity<TodoDTO>> createTodoAsync(@RequestParam String title) {
+        return createTodo(title);
+    }
+
+    @PatchMapping("/{id}/completed")
+    public Mono<ResponseEntity<Void>> updateCompleted(
+            @PathVariable Long id,
+            @RequestParam Boolean completed,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = parseVersion(ifMatch);
+        if (expectedVersion == null) {
+            // No ETag, as from TodoController, so clients see the same responses on either stack
+            return todoService.updateCompleted(id, completed).thenReturn(ResponseEntity.ok().build());
+        }
+        return todoService.updateCompleted(id, completed, expectedVersion)
+                .map(version -> ResponseEntity.ok().eTag(String.valueOf(version)).build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTodo(@PathVariable Long id) {
+        return todoService.delete(id).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PatchMapping("/completed")
+    public Mono<ResponseEntity<BulkResultDTO>> updateCompleted(@Valid @RequestBody BulkCompleteRequest request) {
+        return todoService.updateCompleted(request.getIds(), request.getCompleted())
+                .map(outcomes -> ResponseEntity.ok(new BulkResultDTO(outcomes)));
+    }
+
+    @PostMapping("/bulk-delete")
+    public Mono<ResponseEntity<BulkResultDTO>> deleteTodos(@Valid @RequestBody BulkIdsRequest request) {
+        return todoService.deleteAll(request.getIds())
+                .map(outcomes -> ResponseEntity.ok(new BulkResultDTO(outcomes)));
+    }
+
+    @DeleteMapping("/completed")
+    public Mono<ResponseEntity<Map<String, Integer>>> deleteCompletedTodos() {
+        return todoService.deleteAllCompleted().map(deleted -> ResponseEntity.ok(Map.of("deleted", deleted)));
+    }
+
+    @PatchMapping("/async/{id}/completed")
+    public Mono<ResponseEntity<Void>> updateCompletedAsync(
+            @PathVariable Long id,
+            @RequestParam Boolean completed) {
+        return todoService.updateCompleted(id, completed).thenReturn(ResponseEntity.ok().build());
+    }
+}
@@ -0,0 +1,108 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * The reactive profile's GET /todos/events: the same frames as {@link TodoEventBroadcaster},
+ * written by Netty as subscribers take them instead of by a thread per subscriber.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTodoEventFeed extends TodoEventFeed<ServerSentEvent<String>> {
+    private final Duration timeout;
+
+    // Subscribers without demand never hold up the others; their own buffers make sure they always have some
+    private final Sinks.Many<ServerSentEvent<String>> frames = Sinks.many().multicast().directBestEffort();
+    // Events arrive on event loops, so concurrent emissions queue on a short lock instead of spinning
+    private final Object emitting = new Object();
+    private final ServerSentEvent<String> heartbeat = ServerSentEvent.<String>builder().comment("keepalive").build();
+
+    public ReactiveTodoEventFeed(ObjectMapper objectMapper,
+                                 @Value("${todo.events.buffer-size}") int bufferSize,
+                                 @Value("${todo.events.max-subscribers}") int maxSubscribers,
+                                 @Value("${todo.events.timeout-ms}") long timeoutMillis) {
+        super(objectMapper, bufferSize, maxSubscribers);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    /**
+     * Opens a subscription. A client reconnecting with a Last-Event-ID may have missed events,
+     * and none are replayed, so it starts with a RESYNC.
+     */
+    public Flux<ServerSentEvent<String>> subscribe(boolean reconnect) {
+        admit();
+        // The first frame commits the response headers so proxies start streaming
+        return follow(reconnect ? frame(TodoEventDTO.resync()) : heartbeat)
+                .take(timeout)
+                .doFinally(signal -> release());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoEvent(TodoEventDTO event) {
+        countPublished();
+        if (frames.currentSubscriberCount() == 0) {
+            return;
+        }
+        emit(frame(event));
+    }
+
+    // Detects clients that went away without closing, and keeps idle connections open through proxies
+    @Scheduled(fixedDelayString = "${todo.events.heartbeat-ms}")
+    public void sendHeartbeats() {
+        emit(heartbeat);
+    }
+
+    // Runs before the web server stops, which would otherwise wait on the open streams
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        synchronized (emitting) {
+            frames.tryEmitComplete();
+        }
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return frames.currentSubscriberCount();
+    }
+
+    @Override
+    protected ServerSentEvent<String> frame(String id, String json) {
+        return ServerSentEvent.<String>builder()
+                .id(id)
+                .event(EVENT_NAME)
+                .data(json)
+                .build();
+    }
+
+    // Serialized, the only failures left are no subscribers and a completed sink: nobody to tell
+    private void emit(ServerSentEvent<String> frame) {
+        synchronized (emitting) {
+            frames.tryEmitNext(frame);
+        }
+    }
+
+    private Flux<ServerSentEvent<String>> follow(ServerSentEvent<String> first) {
+        // Merged rather than prepended, so the stream follows the sink from the start
+        return Flux.merge(Mono.just(first), frames.asFlux().onBackpressureBuffer(bufferSize, BufferOverflowStrategy.ERROR))
+                .onErrorResume(Exceptions::isOverflow, e -> {
+                    countDropped(bufferSize);
+                    return follow(frame(TodoEventDTO.resync()));
+                });
+    }
+}
@@ -0,0 +1,62 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.config.ReadWriteRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-your-writes on top of replica routing: for {@code todo.datasource.replica.max-lag-ms}
+ * after a client's last successful write, its reads go to the primary as well, so it never sees
+ * the replica still missing that write. Clients are told apart like in {@link AsyncAdmissionControl}.
+ */
+@Component
+@ConditionalOnProperty(name = {"todo.datasource.replica.enabled", "todo.datasource.read-your-writes.enabled"},
+        havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Cache<String, Boolean> recentWriters;
+    private final LongAdder pinnedRequests = new LongAdder();
+
+    public ReadYourWritesFilter(@Value("${todo.datasource.replica.max-lag-ms}") long maxLagMillis) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(maxLagMillis))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = AsyncAdmissionControl.clientKey(request);
+        if (recentWriters.getIfPresent(client) != null) {
+            pinnedRequests.increment();
+            ReadWriteRoutingDataSource.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.unpin();
+            if (!SAFE_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        }
+    }
+
+    public long getPinnedRequests() {
+        return pinnedRequests.sum();
+    }
+}
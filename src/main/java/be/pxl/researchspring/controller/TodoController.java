@@ -1,49 +1,202 @@
 package be.pxl.researchspring.controller;
 
+import be.pxl.researchspring.api.request.BulkCompleteRequest;
+import be.pxl.researchspring.api.request.BulkCreateRequest;
+import be.pxl.researchspring.api.request.BulkIdsRequest;
+import be.pxl.researchspring.api.request.CreateTodoRequest;
+import be.pxl.researchspring.api.response.BulkResultDTO;
+import be.pxl.researchspring.api.response.TodoChangesDTO;
 import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoStatsDTO;
 import be.pxl.researchspring.domain.Todo;
 import be.pxl.researchspring.service.TodoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import static be.pxl.researchspring.controller.TodoControllerSupport.*;
+
 
 @RestController
 @RequestMapping("/todos")
+@Profile("!reactive")
 public class TodoController {
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+
     private final TodoService todoService;
+    private final ObjectMapper objectMapper;
+    private final AsyncAdmissionControl admissionControl;
+    private final TodoEventBroadcaster eventBroadcaster;
 
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, ObjectMapper objectMapper,
+                          AsyncAdmissionControl admissionControl, TodoEventBroadcaster eventBroadcaster) {
         this.todoService = todoService;
+        this.objectMapper = objectMapper;
+        this.admissionControl = admissionControl;
+        this.eventBroadcaster = eventBroadcaster;
     }
 
     @GetMapping
-    public List<TodoDTO> getAllTodos()
+    public ResponseEntity<List<TodoDTO>> getAllTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request)
+    {
+        if (after == null && limit == null) {
+            // Resolve the ETag before the body so unchanged collections are never serialized
+            String version = todoService.getTodosVersion();
+            // Weak: the tag covers every format and encoding of the collection, and Tomcat
+            // only compresses responses without a strong one
+            String etag = "W/\"" + version + "\"";
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(etag).body(todoService.getAllTodos());
+        }
+        int pageSize = pageSize(limit);
+        return page(todoService.getTodosAfter(after, pageSize), pageSize);
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<List<TodoDTO>> getArchivedTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit)
+    {
+        int pageSize = pageSize(limit);
+        return page(todoService.getArchivedTodosAfter(after, pageSize), pageSize);
+    }
+
+    @GetMapping("/archive/{id}")
+    public ResponseEntity<TodoDTO> getArchivedTodo(@PathVariable Long id) {
+        return ResponseEntity.ok(todoService.getArchivedTodo(id));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<TodoDTO>> searchTodos(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit)
     {
-        return todoService.getAllTodos();
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        int pageSize = pageSize(limit);
+        return page(todoService.search(q, prefix, after, pageSize), pageSize);
     }
 
-    @PostMapping
+    @GetMapping("/changes")
+    public ResponseEntity<TodoChangesDTO> getChanges(@RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(todoService.getChangesSince(since));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<TodoStatsDTO> getStats() {
+        return ResponseEntity.ok(todoService.getStats());
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return eventBroadcaster.subscribe(lastEventId != null);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<TodoDTO> getTodo(@PathVariable Long id) {
+        TodoDTO todo = todoService.getTodo(id);
+        return ResponseEntity.ok().eTag(String.valueOf(todo.getVersion())).body(todo);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTodosNdjson() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = streamWriter()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                todoService.streamTodos(todo -> write(writer, todo));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTodosJson() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = streamWriter().writeValuesAsArray(outputStream)) {
+                todoService.streamTodos(todo -> write(writer, todo));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Let the servlet buffer decide when to flush instead of flushing after every row
+    private ObjectWriter streamWriter() {
+        return objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static void write(SequenceWriter writer, TodoDTO todo) {
+        try {
+            writer.write(todo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PostMapping(params = "title")
     public ResponseEntity<Todo> createTodo(@RequestParam String title) {
         Todo todo = todoService.create(title);
         return ResponseEntity.status(HttpStatus.CREATED).body(todo);
     }
 
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE})
+    public ResponseEntity<Todo> createTodo(@Valid @RequestBody CreateTodoRequest request) {
+        Todo todo = todoService.create(request.getTitle());
+        return ResponseEntity.status(HttpStatus.CREATED).body(todo);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<Todo>> createTodos(@Valid @RequestBody BulkCreateRequest request) {
+        List<Todo> todos = todoService.createAll(request.getTitles());
+        return ResponseEntity.status(HttpStatus.CREATED).body(todos);
+    }
+
     @PostMapping("/async")
-    public CompletableFuture<ResponseEntity<Todo>> createTodoAsync(@RequestParam String title) {
-        return todoService.createAsync(title)
+    public CompletableFuture<ResponseEntity<Todo>> createTodoAsync(@RequestParam String title, HttpServletRequest request) {
+        return admissionControl.submit(request, () -> todoService.createAsync(title))
                 .thenApply(todo -> ResponseEntity.status(HttpStatus.CREATED).body(todo));
     }
 
     @PatchMapping("/{id}/completed")
     public ResponseEntity<Void> updateCompleted(
             @PathVariable Long id,
-            @RequestParam Boolean completed) {
-        todoService.updateCompleted(id, completed);
-        return ResponseEntity.ok().build();
+            @RequestParam Boolean completed,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = parseVersion(ifMatch);
+        if (expectedVersion == null) {
+            // Unconditional toggles may be buffered by write-behind, so there is no version to return yet
+            todoService.updateCompleted(id, completed);
+            return ResponseEntity.ok().build();
+        }
+        long version = todoService.updateCompleted(id, completed, expectedVersion);
+        return ResponseEntity.ok().eTag(String.valueOf(version)).build();
     }
 
     @DeleteMapping("/{id}")
@@ -52,11 +205,27 @@ public class TodoController {
         return ResponseEntity.noContent().build();
     }
 
+    @PatchMapping("/completed")
+    public ResponseEntity<BulkResultDTO> updateCompleted(@Valid @RequestBody BulkCompleteRequest request) {
+        return ResponseEntity.ok(new BulkResultDTO(todoService.updateCompleted(request.getIds(), request.getCompleted())));
+    }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkResultDTO> deleteTodos(@Valid @RequestBody BulkIdsRequest request) {
+        return ResponseEntity.ok(new BulkResultDTO(todoService.deleteAll(request.getIds())));
+    }
+
+    @DeleteMapping("/completed")
+    public ResponseEntity<Map<String, Integer>> deleteCompletedTodos() {
+        return ResponseEntity.ok(Map.of("deleted", todoService.deleteAllCompleted()));
+    }
+
     @PatchMapping("/async/{id}/completed")
     public CompletableFuture<ResponseEntity<Void>> updateCompletedAsync(
             @PathVariable Long id,
-            @RequestParam Boolean completed) {
-        return todoService.updateCompletedAsync(id, completed)
+            @RequestParam Boolean completed,
+            HttpServletRequest request) {
+        return admissionControl.submit(request, () -> todoService.updateCompletedAsync(id, completed))
                 .thenApply(v -> ResponseEntity.ok().build());
     }
 }
@@ -0,0 +1,46 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+// Paging and version rules shared by TodoController and ReactiveTodoController
+final class TodoControllerSupport {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private TodoControllerSupport() {
+    }
+
+    static int pageSize(Integer limit) {
+        return Math.clamp(limit == null ? 100 : limit, 1, MAX_PAGE_SIZE);
+    }
+
+    // A full page may have more behind it; the last id is the cursor for the next one
+    static ResponseEntity<List<TodoDTO>> page(List<TodoDTO> page, int pageSize) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getLast().getId()));
+        }
+        return response.body(page);
+    }
+
+    // Accepts the entity tags produced by the controllers: "5" or W/"5"
+    static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must be a todo version");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed todo events out to Server-Sent Event subscribers.
+ * Publishing offers the event's frame to every subscriber's bounded queue, so a write never
+ * waits on a client. Each subscriber is drained by its own virtual thread while it has frames
+ * queued.
+ */
+@Component
+public class TodoEventBroadcaster extends TodoEventFeed<Set<DataWithMediaType>> {
+    private static final Logger logger = LoggerFactory.getLogger(TodoEventBroadcaster.class);
+
+    private final long timeoutMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("TodoEvents-", 0).factory());
+    private final Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("keepalive").build();
+
+    public TodoEventBroadcaster(ObjectMapper objectMapper,
+                                @Value("${todo.events.buffer-size}") int bufferSize,
+                                @Value("${todo.events.max-subscribers}") int maxSubscribers,
+                                @Value("${todo.events.timeout-ms}") long timeoutMillis) {
+        super(objectMapper, bufferSize, maxSubscribers);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Opens a subscription. A client reconnecting with a Last-Event-ID may have missed events,
+     * and none are replayed, so it starts with a RESYNC.
+     */
+    public SseEmitter subscribe(boolean reconnect) {
+        admit();
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        // The first frame commits the response headers so proxies start streaming
+        subscriber.offer(reconnect ? frame(TodoEventDTO.resync()) : heartbeat);
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoEvent(TodoEventDTO event) {
+        countPublished();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> frame = frame(event);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+
+    // Detects clients that went away without closing, and keeps idle connections open through proxies
+    @Scheduled(fixedDelayString = "${todo.events.heartbeat-ms}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(heartbeat);
+        }
+    }
+
+    // Runs before the web server stops, which would otherwise wait on the open streams
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // The parts are immutable strings, so one frame can be sent to every subscriber
+    @Override
+    protected Set<DataWithMediaType> frame(String id, String json) {
+        return SseEmitter.event()
+                .id(id)
+                .name(EVENT_NAME)
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    // Completion, timeout, error and a failed send can all remove one subscriber
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            release();
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> frames = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (!frames.offer(frame)) {
+                countDropped(frames.size());
+                frames.clear();
+                frames.offer(frame(TodoEventDTO.resync()));
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; the emitter has already been completed
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> frame;
+                while ((frame = frames.poll()) != null) {
+                    try {
+                        emitter.send(frame);
+                    } catch (IOException | IllegalStateException e) {
+                        logger.debug("Dropping event subscriber: {}", e.getMessage());
+                        remove(this);
+                        frames.clear();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // A frame offered between the last poll and the reset would otherwise wait for the next event
+            } while (!frames.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
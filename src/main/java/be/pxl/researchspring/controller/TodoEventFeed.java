@@ -0,0 +1,88 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the servlet and the reactive GET /todos/events share: the subscriber limit, the counters
+ * and the frames. Each event is serialized once into a frame of type {@code F}, the form its
+ * stack writes, and that frame is shared by every subscriber. Every subscriber has a bounded
+ * buffer; one that falls a full buffer behind loses its backlog and continues with a single
+ * RESYNC event.
+ */
+public abstract class TodoEventFeed<F> {
+    protected static final String EVENT_NAME = "todo";
+
+    private final ObjectMapper objectMapper;
+    protected final int bufferSize;
+    private final int maxSubscribers;
+
+    // Admitted streams, counted from the request on
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    protected TodoEventFeed(ObjectMapper objectMapper, int bufferSize, int maxSubscribers) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Takes a subscriber slot, or rejects the subscription when all are taken. Every admitted
+     * stream gives its slot back through {@link #release()} exactly once.
+     */
+    protected void admit() {
+        if (open.incrementAndGet() > maxSubscribers) {
+            open.decrementAndGet();
+            rejected.increment();
+            throw new AdmissionRejectedException("Too many event subscribers", 5);
+        }
+    }
+
+    protected void release() {
+        open.decrementAndGet();
+    }
+
+    protected void countPublished() {
+        published.increment();
+    }
+
+    // Slow consumer: whatever it missed is better fetched through GET /todos/changes
+    protected void countDropped(long frames) {
+        dropped.add(frames);
+    }
+
+    // Built once per event and shared by every subscriber
+    protected F frame(TodoEventDTO event) {
+        try {
+            return frame(String.valueOf(eventIds.incrementAndGet()), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize todo event", e);
+        }
+    }
+
+    protected abstract F frame(String id, String json);
+
+    // Streams receiving events
+    public abstract int getSubscriberCount();
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,40 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.service.ChangeTokenExpiredException;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Status codes for the todo endpoints, shared by the servlet and the reactive controller so both
+ * stacks answer the same way.
+ */
+@RestControllerAdvice(assignableTypes = {TodoController.class, ReactiveTodoController.class})
+public class TodoExceptionHandler {
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<Void> handleNotFound(EntityNotFoundException e) {
+        return ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleVersionMismatch(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    @ExceptionHandler(ChangeTokenExpiredException.class)
+    public ResponseEntity<Void> handleChangeTokenExpired(ChangeTokenExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE).build();
+    }
+
+    // Thrown by admission control and by the event feeds once they are full
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Void> handleAdmissionRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package be.pxl.researchspring.controller;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket: the state is an immutable snapshot swapped with CAS,
+ * so concurrent requests from the same client never block each other.
+ */
+class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(double capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanos until the next token is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = refill(current, nowNanos);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, nowNanos))) {
+                return 0;
+            }
+        }
+    }
+
+    boolean isIdle(long nowNanos) {
+        return refill(state.get(), nowNanos) >= capacity;
+    }
+
+    private double refill(State current, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - current.updatedAtNanos());
+        return Math.min(capacity, current.tokens() + elapsed * tokensPerNano);
+    }
+
+    private record State(double tokens, long updatedAtNanos) {
+    }
+}
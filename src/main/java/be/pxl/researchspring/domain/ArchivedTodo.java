@@ -0,0 +1,32 @@
+package be.pxl.researchspring.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.OffsetDateTime;
+
+// A completed todo moved out of the live table; only the archiver writes here (db/todo-archive.sql)
+@Entity
+@Immutable
+@Table(name = "todos_archive")
+public class ArchivedTodo {
+    @Id
+    private Long id;
+    private String title;
+    private Long version;
+
+    @Column(name = "completed_at", nullable = false)
+    private OffsetDateTime completedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private OffsetDateTime archivedAt;
+
+    protected ArchivedTodo() {
+    }
+
+    public Long getId() {return id;}
+    public String getTitle() {return title;}
+    public Long getVersion() {return version;}
+    public OffsetDateTime getCompletedAt() {return completedAt;}
+    public OffsetDateTime getArchivedAt() {return archivedAt;}
+}
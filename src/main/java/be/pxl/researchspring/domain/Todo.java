@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 @Table(name = "todos")
 public class Todo {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+    // Pooled allocation lets Hibernate assign ids without a round-trip per insert, which IDENTITY forbids
+    @SequenceGenerator(name = "todo_seq", sequenceName = "todos_id_seq", allocationSize = 50)
     private Long id;
     private String title;
     private boolean completed;
@@ -21,6 +23,10 @@ public class Todo {
     @Version
     private Long version;
 
+    // Stamped by a database trigger on every write; only read by the delta sync queries
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
     public void setId(Long id) {this.id = id;}
 
     public Todo() {
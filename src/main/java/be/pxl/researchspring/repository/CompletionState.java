@@ -0,0 +1,7 @@
+package be.pxl.researchspring.repository;
+
+// Id and completed flag of a row as it was before a set-based update or delete touched it
+public interface CompletionState {
+    Long getId();
+    Boolean getCompleted();
+}
@@ -0,0 +1,12 @@
+package be.pxl.researchspring.repository;
+
+public interface CompletionUpdateResult {
+    Long getCurrentVersion();
+    Boolean getPreviousCompleted();
+    Long getNewVersion();
+    String getTitle();
+
+    default boolean isUpdated() {
+        return getNewVersion() != null;
+    }
+}
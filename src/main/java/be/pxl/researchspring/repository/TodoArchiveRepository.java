@@ -0,0 +1,47 @@
+package be.pxl.researchspring.repository;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.ArchivedTodo;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoArchiveRepository extends JpaRepository<ArchivedTodo, Long> {
+    @Query("SELECT new be.pxl.researchspring.api.response.TodoDTO(a.id, a.title, true, a.version) FROM ArchivedTodo a WHERE a.id = :id")
+    Optional<TodoDTO> findProjectedById(@Param("id") Long id);
+
+    @Query("SELECT new be.pxl.researchspring.api.response.TodoDTO(a.id, a.title, true, a.version) FROM ArchivedTodo a WHERE a.id > :after ORDER BY a.id")
+    List<TodoDTO> findProjectedAfter(@Param("after") Long after, Limit limit);
+
+    /**
+     * Moves up to {@code limit} todos completed before {@code cutoff}, oldest first, from the
+     * live table into the archive in one statement and returns their ids. Rows locked by a
+     * foreground write are skipped rather than waited for; they are picked up by a later batch.
+     * The delete leaves tombstones, so delta sync clients drop archived todos like deleted ones.
+     * The batch is materialized: a subquery the planner rescans would skip its own locks and
+     * pick another {@code limit} rows each time.
+     */
+    @Query(value = """
+            WITH batch AS MATERIALIZED (
+                SELECT id FROM todos
+                WHERE completed AND completed_at < :cutoff
+                ORDER BY completed_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ), moved AS (
+                DELETE FROM todos WHERE id IN (SELECT id FROM batch)
+                RETURNING id, title, version, completed_at
+            )
+            INSERT INTO todos_archive (id, title, version, completed_at, archived_at)
+            SELECT id, title, version, completed_at, now() FROM moved
+            RETURNING id
+            """, nativeQuery = true)
+    List<Long> archiveCompletedBefore(@Param("cutoff") OffsetDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,13 @@
+package be.pxl.researchspring.repository;
+
+import be.pxl.researchspring.domain.Todo;
+
+import java.util.List;
+
+public interface TodoBatchOperations {
+    /**
+     * Persists the given todos in JDBC batches of {@code batchSize}, flushing and clearing
+     * the persistence context after every batch so memory stays flat for large inputs.
+     */
+    List<Todo> insertAll(List<Todo> todos, int batchSize);
+}
@@ -0,0 +1,26 @@
+package be.pxl.researchspring.repository;
+
+import be.pxl.researchspring.domain.Todo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+class TodoBatchOperationsImpl implements TodoBatchOperations {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Todo> insertAll(List<Todo> todos, int batchSize) {
+        for (int i = 0; i < todos.size(); i++) {
+            entityManager.persist(todos.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return todos;
+    }
+}
@@ -0,0 +1,6 @@
+package be.pxl.researchspring.repository;
+
+public interface TodoCounts {
+    long getTotal();
+    long getCompleted();
+}
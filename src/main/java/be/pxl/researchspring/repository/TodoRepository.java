@@ -1,23 +1,137 @@
 package be.pxl.researchspring.repository;
 
+import be.pxl.researchspring.api.response.TodoDTO;
 import be.pxl.researchspring.domain.Todo;
-import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+// The fragments are listed again here, as Spring Data only picks up the directly extended ones
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT t FROM Todo t WHERE t.id = :id")
-    Optional<Todo> findByIdWithLock(@Param("id") Long id);
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoStore, TodoBatchOperations, TodoSearchOperations {
+    // Declared on both supertypes; still served by the default CrudRepository implementation
+    @Override
+    Optional<Todo> findById(Long id);
+
+    @Override
+    <S extends Todo> S save(S todo);
+
+    @Override
+    <S extends Todo> List<S> saveAll(Iterable<S> todos);
+
+    @Query("SELECT new be.pxl.researchspring.api.response.TodoDTO(t.id, t.title, t.completed, t.version) FROM Todo t ORDER BY t.id")
+    List<TodoDTO> findAllProjected();
+
+    @Query("SELECT new be.pxl.researchspring.api.response.TodoDTO(t.id, t.title, t.completed, t.version) FROM Todo t WHERE t.id = :id")
+    Optional<TodoDTO> findProjectedById(@Param("id") Long id);
+
+    @Query("SELECT new be.pxl.researchspring.api.response.TodoDTO(t.id, t.title, t.completed, t.version) FROM Todo t WHERE t.id > :after ORDER BY t.id")
+    List<TodoDTO> findProjectedAfter(@Param("after") Long after, Limit limit);
+
+    // Postgres only uses a server-side cursor when a fetch size is set inside a transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new be.pxl.researchspring.api.response.TodoDTO(t.id, t.title, t.completed, t.version) FROM Todo t ORDER BY t.id")
+    Stream<TodoDTO> streamAllProjected();
+
+    // Delta sync: change sequences are transaction ids stamped by triggers (db/todo-changes.sql).
+    // Everything below the horizon has committed or rolled back, so [since, horizon) never changes.
+    @Query(value = "SELECT todo_change_horizon()", nativeQuery = true)
+    long findChangeHorizon();
+
+    @Query(value = "SELECT min_token FROM todo_change_horizon WHERE id = 1", nativeQuery = true)
+    long findMinChangeToken();
+
+    @Query("SELECT new be.pxl.researchspring.api.response.TodoDTO(t.id, t.title, t.completed, t.version) FROM Todo t " +
+            "WHERE t.changeSeq >= :since AND t.changeSeq < :until ORDER BY t.id")
+    List<TodoDTO> findProjectedChanged(@Param("since") long since, @Param("until") long until);
+
+    // Ids re-inserted after a delete (create-drop restarts the id sequence) are live, not deleted
+    @Query(value = """
+            SELECT tomb.id FROM todo_tombstones tomb
+            WHERE tomb.change_seq >= :since AND tomb.change_seq < :until
+              AND NOT EXISTS (SELECT 1 FROM todos t WHERE t.id = tomb.id)
+            ORDER BY tomb.id
+            """, nativeQuery = true)
+    List<Long> findDeletedIds(@Param("since") long since, @Param("until") long until);
+
+    @Query(value = """
+            WITH pruned AS (
+                DELETE FROM todo_tombstones WHERE deleted_at < :cutoff RETURNING change_seq
+            ), horizon AS (
+                UPDATE todo_change_horizon
+                SET min_token = GREATEST(min_token, (SELECT max(change_seq) + 1 FROM pruned))
+                WHERE id = 1 AND EXISTS (SELECT 1 FROM pruned)
+            )
+            SELECT count(*) FROM pruned
+            """, nativeQuery = true)
+    long pruneTombstones(@Param("cutoff") OffsetDateTime cutoff);
+
+    @Query(value = "SELECT count(*) AS total, count(*) FILTER (WHERE completed) AS completed FROM todos",
+            nativeQuery = true)
+    TodoCounts countTodos();
 
     @Modifying
-    @Query("UPDATE Todo t SET t.completed = :completed, t.version = t.version + 1 WHERE t.id = :id")
-    int updateCompleted(@Param("id") Long id, @Param("completed") Boolean completed);
+    @Query("UPDATE Todo t SET t.completed = :completed, t.version = t.version + 1 WHERE t.id IN :ids")
+    int updateCompletedForIds(@Param("ids") Collection<Long> ids, @Param("completed") boolean completed);
+
+    // Set-based statements that report the rows they touched and their previous completed flag,
+    // so callers get per-id outcomes and counter deltas without reading the rows first.
+    // The locking CTE reads the latest committed state in id order, which also avoids deadlocks
+    // between overlapping bulk updates.
+    @Query(value = """
+            WITH prev AS (
+                SELECT id, completed FROM todos WHERE id IN (:ids) ORDER BY id FOR UPDATE
+            )
+            UPDATE todos t SET completed = :completed, version = t.version + 1
+            FROM prev
+            WHERE t.id = prev.id
+            RETURNING t.id AS id, prev.completed AS completed
+            """, nativeQuery = true)
+    List<CompletionState> updateCompletedReturningPrevious(@Param("ids") Collection<Long> ids,
+                                                          @Param("completed") boolean completed);
+
+    @Query(value = "DELETE FROM todos WHERE id IN (:ids) RETURNING id, completed", nativeQuery = true)
+    List<CompletionState> deleteReturningState(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "DELETE FROM todos WHERE id = :id RETURNING completed", nativeQuery = true)
+    Optional<Boolean> deleteReturningCompleted(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Todo t WHERE t.completed = true")
+    int deleteCompleted();
+
+    // A single statement; the row lock taken by the first CTE makes the returned previous state
+    // consistent with the update
+    @Query(value = """
+            WITH cur AS (
+                SELECT id, version, completed, title FROM todos WHERE id = :id FOR UPDATE
+            ), updated AS (
+                UPDATE todos t SET completed = :completed, version = t.version + 1
+                FROM cur
+                WHERE t.id = cur.id
+                  AND (CAST(:expectedVersion AS bigint) IS NULL OR cur.version = CAST(:expectedVersion AS bigint))
+                RETURNING t.version
+            )
+            SELECT cur.version AS currentVersion,
+                   cur.completed AS previousCompleted,
+                   (SELECT version FROM updated) AS newVersion,
+                   cur.title AS title
+            FROM cur
+            """, nativeQuery = true)
+    Optional<CompletionUpdateResult> updateCompleted(@Param("id") Long id,
+                                                     @Param("completed") boolean completed,
+                                                     @Param("expectedVersion") Long expectedVersion);
 }
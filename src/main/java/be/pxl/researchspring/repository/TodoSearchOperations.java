@@ -0,0 +1,16 @@
+package be.pxl.researchspring.repository;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface TodoSearchOperations {
+    /**
+     * Todos with an id above {@code after} whose lower-cased title matches the LIKE
+     * {@code pattern}, in id order. The pattern must be lower-cased with wildcards in the
+     * search term escaped; it is served by the indexes in db/todo-search.sql.
+     */
+    @Transactional(readOnly = true)
+    List<TodoDTO> searchByTitle(String pattern, long after, int limit);
+}
@@ -0,0 +1,26 @@
+package be.pxl.researchspring.repository;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+class TodoSearchOperationsImpl implements TodoSearchOperations {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TodoDTO> searchByTitle(String pattern, long after, int limit) {
+        // A prepared LIKE ? soon gets a cached generic plan, which cannot use the trigram or
+        // prefix index because the pattern is unknown; plan every execution for its pattern
+        entityManager.createNativeQuery("SELECT set_config('plan_cache_mode', 'force_custom_plan', true)")
+                .getSingleResult();
+        return entityManager.createQuery("SELECT new be.pxl.researchspring.api.response.TodoDTO(t.id, t.title, t.completed, t.version) " +
+                        "FROM Todo t WHERE lower(t.title) LIKE :pattern ESCAPE '\\' AND t.id > :after ORDER BY t.id", TodoDTO.class)
+                .setParameter("pattern", pattern)
+                .setParameter("after", after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,80 @@
+package be.pxl.researchspring.repository;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import org.springframework.data.domain.Limit;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The storage operations the services use, and nothing more. Implemented by the JPA
+ * {@link TodoRepository} and by the in-memory store of the memory profile, so code written
+ * against this interface runs on either.
+ */
+public interface TodoStore extends TodoBatchOperations, TodoSearchOperations {
+    // Reads, straight into TodoDTO and in id order
+
+    List<TodoDTO> findAllProjected();
+
+    Optional<TodoDTO> findProjectedById(Long id);
+
+    List<TodoDTO> findProjectedAfter(Long after, Limit limit);
+
+    Stream<TodoDTO> streamAllProjected();
+
+    // Delta sync: everything below the horizon has committed or rolled back, so [since, horizon)
+    // never changes
+
+    long findChangeHorizon();
+
+    long findMinChangeToken();
+
+    List<TodoDTO> findProjectedChanged(long since, long until);
+
+    List<Long> findDeletedIds(long since, long until);
+
+    /**
+     * Drops tombstones older than {@code cutoff} and raises the minimum usable change token past
+     * them, so clients holding an older token know they have to resync. Returns the number of
+     * tombstones removed.
+     */
+    long pruneTombstones(OffsetDateTime cutoff);
+
+    TodoCounts countTodos();
+
+    // Entity access, as in CrudRepository
+
+    Optional<Todo> findById(Long id);
+
+    List<Todo> findAll();
+
+    long count();
+
+    <S extends Todo> S save(S todo);
+
+    <S extends Todo> List<S> saveAll(Iterable<S> todos);
+
+    void deleteAll();
+
+    // Writes that report the rows they touched
+
+    int updateCompletedForIds(Collection<Long> ids, boolean completed);
+
+    List<CompletionState> updateCompletedReturningPrevious(Collection<Long> ids, boolean completed);
+
+    List<CompletionState> deleteReturningState(Collection<Long> ids);
+
+    Optional<Boolean> deleteReturningCompleted(Long id);
+
+    int deleteCompleted();
+
+    /**
+     * Sets the completed flag and bumps the version. Returns nothing when the todo does not
+     * exist and a null new version when {@code expectedVersion} is given and does not match.
+     */
+    Optional<CompletionUpdateResult> updateCompleted(Long id, boolean completed, Long expectedVersion);
+}
@@ -0,0 +1,557 @@
+package be.pxl.researchspring.repository.memory;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.CompletionState;
+import be.pxl.researchspring.repository.CompletionUpdateResult;
+import be.pxl.researchspring.repository.TodoCounts;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.repository.TodoStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link TodoStore} without a database, for edge deployments and fast integration tests.
+ * Active under the {@code memory} profile, which also switches off the datasource and JPA, and
+ * stands in for the {@link TodoRepository} there.
+ * <p>
+ * Rows are immutable {@link StoredTodo} values in a lock-free map keyed by the primitive id.
+ * Ids come from an atomic counter and every write is a compare-and-set of the row, so
+ * concurrent writers never block one another; a write that loses the race retries against
+ * the newer row. Versions behave as with {@code @Version}: every write bumps them, and saving
+ * a stale entity fails with an {@link ObjectOptimisticLockingFailureException}.
+ * <p>
+ * Each write is appended to a memory-mapped {@link TodoChangeLog} along with a change sequence,
+ * which also drives delta sync. Snapshots are taken periodically and on shutdown, so startup
+ * reads the last snapshot and replays only the log written after it.
+ * <p>
+ * There are no multi-statement transactions: each call applies atomically on its own and is
+ * never rolled back.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryTodoRepository implements TodoStore {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTodoRepository.class);
+
+    private final TodoChangeLog log;
+    private final long snapshotMillis;
+    private final long syncMillis;
+
+    private final LongSlotMap<StoredTodo> rows = new LongSlotMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong changeSeqs = new AtomicLong();
+    private final AtomicLong minToken = new AtomicLong();
+    private final LongAdder size = new LongAdder();
+    // Keyed by change sequence, the order delta sync reads them in
+    private final ConcurrentSkipListMap<Long, Tombstone> tombstones = new ConcurrentSkipListMap<>();
+    // Writers share the read lock while they log and publish a change. Taking the write lock
+    // waits them out, so its holder sees every change up to the current sequence applied.
+    private final ReentrantReadWriteLock publishing = new ReentrantReadWriteLock();
+    private ScheduledExecutorService maintenance;
+    // Guarded by snapshot()
+    private long snapshotChangeSeq;
+
+    public InMemoryTodoRepository(@Value("${todo.memory.data-dir}") Path dataDir,
+                                  @Value("${todo.memory.segment-size}") DataSize segmentSize,
+                                  @Value("${todo.memory.snapshot-interval-ms}") long snapshotMillis,
+                                  @Value("${todo.memory.sync-interval-ms}") long syncMillis) {
+        this.log = new TodoChangeLog(dataDir, Math.toIntExact(segmentSize.toBytes()));
+        this.snapshotMillis = snapshotMillis;
+        this.syncMillis = syncMillis;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        long start = System.nanoTime();
+        long replayed = log.open(new TodoChangeLog.Replay() {
+            @Override
+            public void header(long lastId, long lastChangeSeq, long token) {
+                ids.set(lastId);
+                changeSeqs.set(lastChangeSeq);
+                minToken.set(token);
+            }
+
+            @Override
+            public void row(StoredTodo row) {
+                restore(row);
+            }
+
+            @Override
+            public void tombstone(Tombstone tombstone) {
+                changeSeqs.accumulateAndGet(tombstone.changeSeq(), Math::max);
+                tombstones.put(tombstone.changeSeq(), tombstone);
+            }
+
+            @Override
+            public void entry(byte type, long timestampMillis, StoredTodo row) {
+                replay(type, timestampMillis, row);
+            }
+        });
+        logger.info("Loaded {} todos, replaying {} log entries, in {} ms",
+                size.sum(), replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (replayed > 0) {
+            // The next start then only has to read the snapshot
+            snapshot();
+        }
+        snapshotChangeSeq = changeSeqs.get();
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TodoStore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::syncQuietly, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        maintenance.shutdown();
+        maintenance.awaitTermination(30, TimeUnit.SECONDS);
+        snapshot();
+        log.close();
+    }
+
+    /**
+     * Writes a snapshot of the current state and drops the log segments it covers. Writes go
+     * on while the rows are copied out; the ones that miss the snapshot are replayed from the
+     * new segment.
+     */
+    synchronized void snapshot() {
+        long segment;
+        long lastId;
+        long lastChangeSeq;
+        long token;
+        Lock lock = publishing.writeLock();
+        lock.lock();
+        try {
+            segment = log.roll();
+            lastId = ids.get();
+            lastChangeSeq = changeSeqs.get();
+            token = minToken.get();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            log.writeSnapshot(segment, lastId, lastChangeSeq, token, rows.valuesAfter(0), tombstones.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write todo snapshot", e);
+        }
+        snapshotChangeSeq = lastChangeSeq;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            synchronized (this) {
+                if (changeSeqs.get() == snapshotChangeSeq) {
+                    return;
+                }
+            }
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.warn("Todo snapshot failed", e);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            log.sync();
+        } catch (RuntimeException e) {
+            logger.warn("Todo log sync failed", e);
+        }
+    }
+
+    // Reads
+
+    @Override
+    public List<TodoDTO> findAllProjected() {
+        return rows.streamAfter(0).map(StoredTodo::toDto).toList();
+    }
+
+    @Override
+    public Optional<TodoDTO> findProjectedById(Long id) {
+        return Optional.ofNullable(rows.get(id)).map(StoredTodo::toDto);
+    }
+
+    @Override
+    public List<TodoDTO> findProjectedAfter(Long after, Limit limit) {
+        return rows.streamAfter(after)
+                .limit(limit.isLimited() ? limit.max() : Long.MAX_VALUE)
+                .map(StoredTodo::toDto)
+                .toList();
+    }
+
+    @Override
+    public Stream<TodoDTO> streamAllProjected() {
+        return rows.streamAfter(0).map(StoredTodo::toDto);
+    }
+
+    @Override
+    public List<TodoDTO> searchByTitle(String pattern, long after, int limit) {
+        Pattern like = like(pattern);
+        return rows.streamAfter(after)
+                .filter(row -> row.title() != null && like.matcher(row.title().toLowerCase(Locale.ROOT)).matches())
+                .limit(limit)
+                .map(StoredTodo::toDto)
+                .toList();
+    }
+
+    @Override
+    public long findChangeHorizon() {
+        Lock lock = publishing.writeLock();
+        lock.lock();
+        try {
+            return changeSeqs.get() + 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long findMinChangeToken() {
+        return minToken.get();
+    }
+
+    // A scan instead of an index on the change sequence; it is a sequential pass over memory
+    @Override
+    public List<TodoDTO> findProjectedChanged(long since, long until) {
+        return rows.streamAfter(0)
+                .filter(row -> row.changeSeq() >= since && row.changeSeq() < until)
+                .map(StoredTodo::toDto)
+                .toList();
+    }
+
+    @Override
+    public List<Long> findDeletedIds(long since, long until) {
+        return tombstones.subMap(since, until).values().stream()
+                .map(Tombstone::id)
+                .filter(id -> rows.get(id) == null)
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public TodoCounts countTodos() {
+        long total = 0;
+        long completed = 0;
+        for (var iterator = rows.valuesAfter(0); iterator.hasNext(); ) {
+            total++;
+            completed += iterator.next().completed() ? 1 : 0;
+        }
+        return new Counts(total, completed);
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        return Optional.ofNullable(rows.get(id)).map(StoredTodo::toEntity);
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        return rows.streamAfter(0).map(StoredTodo::toEntity).toList();
+    }
+
+    @Override
+    public long count() {
+        return size.sum();
+    }
+
+    // Writes
+
+    @Override
+    public <S extends Todo> S save(S todo) {
+        StoredTodo saved = todo.getId() == null ? insert(todo) : update(todo);
+        todo.setId(saved.id());
+        todo.setVersion(saved.version());
+        return todo;
+    }
+
+    @Override
+    public <S extends Todo> List<S> saveAll(Iterable<S> todos) {
+        List<S> saved = new ArrayList<>();
+        todos.forEach(todo -> saved.add(save(todo)));
+        return saved;
+    }
+
+    @Override
+    public List<Todo> insertAll(List<Todo> todos, int batchSize) {
+        todos.forEach(this::save);
+        return todos;
+    }
+
+    @Override
+    public int updateCompletedForIds(Collection<Long> ids, boolean completed) {
+        return updateCompletedReturningPrevious(ids, completed).size();
+    }
+
+    @Override
+    public List<CompletionState> updateCompletedReturningPrevious(Collection<Long> ids, boolean completed) {
+        List<CompletionState> previous = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            StoredTodo row = write(id, (current, changeSeq) -> current.withCompleted(completed, changeSeq));
+            if (row != null) {
+                previous.add(new State(id, row.completed()));
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public Optional<CompletionUpdateResult> updateCompleted(Long id, boolean completed, Long expectedVersion) {
+        StoredTodo previous = write(id, (current, changeSeq) ->
+                expectedVersion == null || expectedVersion == current.version()
+                        ? current.withCompleted(completed, changeSeq)
+                        : current);
+        if (previous == null) {
+            return Optional.empty();
+        }
+        boolean updated = expectedVersion == null || expectedVersion == previous.version();
+        return Optional.of(new UpdateResult(previous.version(), previous.completed(),
+                updated ? previous.version() + 1 : null, previous.title()));
+    }
+
+    @Override
+    public List<CompletionState> deleteReturningState(Collection<Long> ids) {
+        List<CompletionState> deleted = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            StoredTodo row = write(id, (current, changeSeq) -> null);
+            if (row != null) {
+                deleted.add(new State(id, row.completed()));
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public Optional<Boolean> deleteReturningCompleted(Long id) {
+        return Optional.ofNullable(write(id, (current, changeSeq) -> null)).map(StoredTodo::completed);
+    }
+
+    @Override
+    public int deleteCompleted() {
+        int deleted = 0;
+        for (var iterator = rows.valuesAfter(0); iterator.hasNext(); ) {
+            StoredTodo row = iterator.next();
+            if (row.completed()) {
+                // Re-checked against the latest row, which may have been reopened meanwhile
+                StoredTodo previous = write(row.id(), (current, changeSeq) -> current.completed() ? null : current);
+                deleted += previous != null && previous.completed() ? 1 : 0;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public long pruneTombstones(OffsetDateTime cutoff) {
+        long cutoffMillis = cutoff.toInstant().toEpochMilli();
+        Lock lock = publishing.readLock();
+        lock.lock();
+        try {
+            long lastPruned = tombstones.values().stream()
+                    .filter(tombstone -> tombstone.deletedAtMillis() < cutoffMillis)
+                    .mapToLong(Tombstone::changeSeq)
+                    .max()
+                    .orElse(-1);
+            if (lastPruned < 0) {
+                return 0;
+            }
+            long token = minToken.accumulateAndGet(lastPruned + 1, Math::max);
+            Map<Long, Tombstone> pruned = tombstones.headMap(token);
+            long count = pruned.size();
+            pruned.clear();
+            log.append(TodoChangeLog.PRUNE, cutoffMillis, new StoredTodo(0, null, false, 0, token));
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        for (var iterator = rows.valuesAfter(0); iterator.hasNext(); ) {
+            write(iterator.next().id(), (current, changeSeq) -> null);
+        }
+    }
+
+    private StoredTodo insert(Todo todo) {
+        Lock lock = publishing.readLock();
+        lock.lock();
+        try {
+            StoredTodo row = new StoredTodo(ids.incrementAndGet(), todo.getTitle(), todo.isCompleted(), 0,
+                    changeSeqs.incrementAndGet());
+            // Logged before it becomes visible, so no later change to the row can reach the log first
+            log.append(TodoChangeLog.CREATE, System.currentTimeMillis(), row);
+            if (!rows.compareAndSet(row.id(), null, row)) {
+                // Only possible if the id counter fell behind the stored rows; losing the write silently is worse
+                throw new IllegalStateException("Todo id " + row.id() + " is already taken");
+            }
+            size.increment();
+            return row;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Hibernate fails the same way on a stale version or a row deleted since the entity was read
+    private StoredTodo update(Todo todo) {
+        // The attempt that wins the compare-and-set is the last one to run
+        StoredTodo[] saved = new StoredTodo[1];
+        StoredTodo previous = write(todo.getId(), (current, changeSeq) -> {
+            if (todo.getVersion() == null || todo.getVersion() != current.version()) {
+                throw new ObjectOptimisticLockingFailureException(Todo.class, todo.getId());
+            }
+            saved[0] = new StoredTodo(current.id(), todo.getTitle(), todo.isCompleted(), current.version() + 1, changeSeq);
+            return saved[0];
+        });
+        if (previous == null) {
+            throw new ObjectOptimisticLockingFailureException(Todo.class, todo.getId());
+        }
+        return saved[0];
+    }
+
+    /**
+     * Replaces the row with {@code id} by what {@code change} makes of it and logs the result,
+     * retrying against the newer row when another writer got there first. Returning null from
+     * {@code change} deletes the row, returning the row itself leaves it alone.
+     * Returns the row that was replaced, or null when there was none.
+     */
+    private StoredTodo write(Long id, RowChange change) {
+        if (id == null) {
+            return null;
+        }
+        Lock lock = publishing.readLock();
+        lock.lock();
+        try {
+            while (true) {
+                StoredTodo current = rows.get(id);
+                if (current == null) {
+                    return null;
+                }
+                long changeSeq = changeSeqs.incrementAndGet();
+                StoredTodo next = change.apply(current, changeSeq);
+                if (next == current) {
+                    return current;
+                }
+                if (rows.compareAndSet(id, current, next)) {
+                    long now = System.currentTimeMillis();
+                    if (next == null) {
+                        log.append(TodoChangeLog.DELETE, now,
+                                new StoredTodo(id, null, current.completed(), current.version(), changeSeq));
+                        tombstones.put(changeSeq, new Tombstone(id, changeSeq, now));
+                        size.decrement();
+                    } else {
+                        log.append(TodoChangeLog.UPDATE, now, next);
+                    }
+                    return current;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The snapshot header is read before its rows are copied, so rows can be newer than the header
+    private void restore(StoredTodo row) {
+        ids.accumulateAndGet(row.id(), Math::max);
+        changeSeqs.accumulateAndGet(row.changeSeq(), Math::max);
+        if (rows.compareAndSet(row.id(), null, row)) {
+            size.increment();
+        }
+    }
+
+    /**
+     * Applies a log entry during startup. Entries for one row can be logged out of order when
+     * writes race, and the newest segment may repeat what the snapshot already holds, so an
+     * entry only applies if it is newer than the row. An update for a missing row is one that
+     * raced with the row's delete; creates are always logged before anything else touches them.
+     */
+    private void replay(byte type, long timestampMillis, StoredTodo row) {
+        ids.accumulateAndGet(row.id(), Math::max);
+        changeSeqs.accumulateAndGet(row.changeSeq(), Math::max);
+        switch (type) {
+            case TodoChangeLog.CREATE, TodoChangeLog.UPDATE -> {
+                StoredTodo current = rows.get(row.id());
+                if (current == null && type == TodoChangeLog.CREATE) {
+                    restore(row);
+                } else if (current != null && row.version() > current.version()) {
+                    rows.compareAndSet(row.id(), current, row);
+                }
+            }
+            case TodoChangeLog.DELETE -> {
+                StoredTodo current = rows.get(row.id());
+                if (current != null && rows.compareAndSet(row.id(), current, null)) {
+                    size.decrement();
+                }
+                tombstones.put(row.changeSeq(), new Tombstone(row.id(), row.changeSeq(), timestampMillis));
+            }
+            case TodoChangeLog.PRUNE -> {
+                long token = minToken.accumulateAndGet(row.changeSeq(), Math::max);
+                tombstones.headMap(token).clear();
+            }
+            default -> throw new IllegalStateException("Unknown todo log entry type " + type);
+        }
+    }
+
+    // Translates a LIKE pattern with backslash escapes into an anchored regular expression
+    private static Pattern like(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    @FunctionalInterface
+    private interface RowChange {
+        StoredTodo apply(StoredTodo current, long changeSeq);
+    }
+
+    private record State(Long getId, Boolean getCompleted) implements CompletionState {
+    }
+
+    private record Counts(long getTotal, long getCompleted) implements TodoCounts {
+    }
+
+    private record UpdateResult(Long getCurrentVersion, Boolean getPreviousCompleted, Long getNewVersion,
+                                String getTitle) implements CompletionUpdateResult {
+    }
+}
@@ -0,0 +1,60 @@
+package be.pxl.researchspring.repository.memory;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager for the {@link InMemoryTodoRepository}. Its writes apply as they happen
+ * and cannot be rolled back, so a transaction here only marks a scope: propagation, and the
+ * synchronizations behind after-commit callbacks and transactional event listeners, work as
+ * they do with JPA.
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Scope(TransactionSynchronizationManager.hasResource(this));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((Scope) transaction).existing;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        return TransactionSynchronizationManager.unbindResource(this);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(this, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this);
+    }
+
+    private record Scope(boolean existing) {
+    }
+}
@@ -0,0 +1,109 @@
+package be.pxl.researchspring.repository.memory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lock-free map from positive {@code long} keys to values, for keys handed out densely by a
+ * counter such as todo ids. Keys index straight into fixed-size segments of atomic slots, so
+ * there is no hashing, boxing or resizing, and iteration comes out in key order for free.
+ * Segments are allocated on first use and never freed; keys are never reused.
+ */
+final class LongSlotMap<V> {
+    private static final int SEGMENT_SHIFT = 14;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int MAX_SEGMENTS = 1 << 16;
+    static final long MAX_KEY = ((long) MAX_SEGMENTS << SEGMENT_SHIFT) - 1;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<V>> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    // Upper bound for iteration; raised before a put returns
+    private final AtomicLong highest = new AtomicLong();
+
+    V get(long key) {
+        if (key <= 0 || key > MAX_KEY) {
+            return null;
+        }
+        AtomicReferenceArray<V> segment = segments.get((int) (key >>> SEGMENT_SHIFT));
+        return segment == null ? null : segment.get((int) (key & SEGMENT_MASK));
+    }
+
+    boolean compareAndSet(long key, V expected, V update) {
+        if (key <= 0 || key > MAX_KEY) {
+            throw new IllegalArgumentException("Key out of range: " + key);
+        }
+        AtomicReferenceArray<V> segment = segment((int) (key >>> SEGMENT_SHIFT));
+        if (!segment.compareAndSet((int) (key & SEGMENT_MASK), expected, update)) {
+            return false;
+        }
+        if (update != null) {
+            highest.accumulateAndGet(key, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the values with a key above {@code after}, in key order. Like the iterators of the
+     * concurrent collections it is weakly consistent: it never fails, and sees every value that
+     * was present for the whole iteration.
+     */
+    Iterator<V> valuesAfter(long after) {
+        return new Iterator<>() {
+            private long key = Math.max(after, 0);
+            private V next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public V next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                V value = next;
+                next = advance();
+                return value;
+            }
+
+            private V advance() {
+                long last = highest.get();
+                while (key < last) {
+                    key++;
+                    AtomicReferenceArray<V> segment = segments.get((int) (key >>> SEGMENT_SHIFT));
+                    if (segment == null) {
+                        // Skip the rest of an unallocated segment in one step
+                        key |= SEGMENT_MASK;
+                        continue;
+                    }
+                    V value = segment.get((int) (key & SEGMENT_MASK));
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    Stream<V> streamAfter(long after) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(valuesAfter(after),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private AtomicReferenceArray<V> segment(int index) {
+        AtomicReferenceArray<V> segment = segments.get(index);
+        if (segment == null) {
+            segments.compareAndSet(index, null, new AtomicReferenceArray<>(SEGMENT_SIZE));
+            segment = segments.get(index);
+        }
+        return segment;
+    }
+}
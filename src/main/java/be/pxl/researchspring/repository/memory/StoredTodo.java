@@ -0,0 +1,23 @@
+package be.pxl.researchspring.repository.memory;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+
+// Immutable row of the in-memory store; every write swaps in a new instance
+record StoredTodo(long id, String title, boolean completed, long version, long changeSeq) {
+    StoredTodo withCompleted(boolean completed, long changeSeq) {
+        return new StoredTodo(id, title, completed, version + 1, changeSeq);
+    }
+
+    TodoDTO toDto() {
+        return new TodoDTO(id, title, completed, version);
+    }
+
+    Todo toEntity() {
+        Todo todo = new Todo(title);
+        todo.setId(id);
+        todo.setCompleted(completed);
+        todo.setVersion(version);
+        return todo;
+    }
+}
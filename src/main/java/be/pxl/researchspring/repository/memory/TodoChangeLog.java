@@ -0,0 +1,388 @@
+package be.pxl.researchspring.repository.memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only change log of the in-memory store, kept in memory-mapped segment files, plus the
+ * snapshots that let old segments go. {@code snapshot-N} holds the state of every change logged
+ * in segments below N, so startup loads the newest snapshot and replays only the segments after it.
+ * <p>
+ * An append reserves its range with one atomic add and copies the entry into the mapping, so
+ * writers never wait on each other or on a system call. A process crash loses nothing that was
+ * appended, since the pages belong to the OS; an OS crash loses what was appended since the
+ * last {@link #sync()}.
+ * <p>
+ * Entries are {@code [length][crc32c][payload]}. Replay only takes entries whose length fits and
+ * whose checksum matches. Anything else is a write torn by a crash, the range of a writer that
+ * crashed before writing into it, or the unwritten end of the segment; replay scans past it a
+ * byte at a time for the next valid entry, so a hole never hides the writes that raced past it.
+ */
+final class TodoChangeLog implements Closeable {
+    static final byte CREATE = 1;
+    static final byte UPDATE = 2;
+    static final byte DELETE = 3;
+    static final byte PRUNE = 4;
+
+    private static final String SEGMENT_PREFIX = "log-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final String LOCK_FILE = "lock";
+    private static final int SNAPSHOT_MAGIC = 0x54444f53;
+    private static final int SNAPSHOT_FORMAT = 1;
+    private static final byte SNAPSHOT_ROW = 1;
+    private static final byte SNAPSHOT_TOMBSTONE = 2;
+    private static final byte SNAPSHOT_END = 0;
+    // crc, type, timestamp, id, version, change seq, completed, title length
+    private static final int FIXED_ENTRY_BYTES = 4 + 1 + 8 + 8 + 8 + 8 + 1 + 4;
+
+    // Receives the recovered state in log order
+    interface Replay {
+        void header(long lastId, long lastChangeSeq, long minToken);
+
+        void row(StoredTodo row);
+
+        void tombstone(Tombstone tombstone);
+
+        void entry(byte type, long timestampMillis, StoredTodo row);
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    // Segments written by this process that no snapshot covers yet
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private volatile Segment current;
+    private FileChannel lockChannel;
+
+    TodoChangeLog(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Feeds the newest snapshot and every log entry after it to {@code replay}, then starts a
+     * new segment for appends. Returns the number of log entries replayed.
+     */
+    long open(Replay replay) throws IOException {
+        Files.createDirectories(directory);
+        lock();
+        List<Long> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        long covered = snapshots.isEmpty() ? 0 : snapshots.getLast();
+        if (!snapshots.isEmpty()) {
+            readSnapshot(path(SNAPSHOT_PREFIX, covered, SNAPSHOT_SUFFIX), replay);
+        }
+        long replayed = 0;
+        long next = covered;
+        for (long number : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (number >= covered) {
+                replayed += replaySegment(path(SEGMENT_PREFIX, number, SEGMENT_SUFFIX), replay);
+                next = number + 1;
+            }
+        }
+        current = openSegment(next);
+        return replayed;
+    }
+
+    void append(byte type, long timestampMillis, StoredTodo row) {
+        byte[] entry = encode(type, timestampMillis, row);
+        if (entry.length > segmentBytes) {
+            throw new IllegalArgumentException("Log entry of " + entry.length + " bytes exceeds the segment size");
+        }
+        while (true) {
+            Segment segment = current;
+            if (segment.tryAppend(entry)) {
+                return;
+            }
+            roll(segment);
+        }
+    }
+
+    /**
+     * Starts a new segment and returns its number. The caller must make sure no append to the
+     * previous segment is still in progress before snapshotting under that number.
+     */
+    synchronized long roll() {
+        current = openSegment(current.number + 1);
+        return current.number;
+    }
+
+    // Forces appended pages out to disk
+    void sync() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Writes a snapshot covering the segments below {@code segment}, then deletes them along
+     * with older snapshots. The file only appears under its final name once it is complete.
+     */
+    void writeSnapshot(long segment, long lastId, long lastChangeSeq, long minToken,
+                       Iterator<StoredTodo> rows, Collection<Tombstone> tombstones) throws IOException {
+        Path target = path(SNAPSHOT_PREFIX, segment, SNAPSHOT_SUFFIX);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32C());
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeLong(lastId);
+            out.writeLong(lastChangeSeq);
+            out.writeLong(minToken);
+            while (rows.hasNext()) {
+                StoredTodo row = rows.next();
+                out.writeByte(SNAPSHOT_ROW);
+                out.writeLong(row.id());
+                writeTitle(out, row.title());
+                out.writeBoolean(row.completed());
+                out.writeLong(row.version());
+                out.writeLong(row.changeSeq());
+            }
+            for (Tombstone tombstone : tombstones) {
+                out.writeByte(SNAPSHOT_TOMBSTONE);
+                out.writeLong(tombstone.id());
+                out.writeLong(tombstone.changeSeq());
+                out.writeLong(tombstone.deletedAtMillis());
+            }
+            out.writeByte(SNAPSHOT_END);
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deleteBefore(segment);
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        // Also releases the lock
+        lockChannel.close();
+    }
+
+    // Two stores appending to one directory would delete each other's segments
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (lockChannel.tryLock() != null) {
+                return;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Held by another store in this JVM
+        }
+        lockChannel.close();
+        throw new IllegalStateException("Todo data directory " + directory + " is in use by another store");
+    }
+
+    private synchronized void roll(Segment full) {
+        if (current == full) {
+            current = openSegment(full.number + 1);
+        }
+    }
+
+    private Segment openSegment(long number) {
+        try {
+            FileChannel channel = FileChannel.open(path(SEGMENT_PREFIX, number, SEGMENT_SUFFIX),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(number, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create log segment " + number, e);
+        }
+    }
+
+    private void deleteBefore(long number) throws IOException {
+        for (Segment segment : segments) {
+            if (segment.number < number) {
+                segments.remove(segment);
+                segment.channel.close();
+            }
+        }
+        for (long old : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (old < number) {
+                Files.deleteIfExists(path(SEGMENT_PREFIX, old, SEGMENT_SUFFIX));
+            }
+        }
+        for (long old : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (old < number) {
+                Files.deleteIfExists(path(SNAPSHOT_PREFIX, old, SNAPSHOT_SUFFIX));
+            }
+        }
+    }
+
+    private Path path(String prefix, long number, String suffix) {
+        return directory.resolve(String.format("%s%010d%s", prefix, number, suffix));
+    }
+
+    // Numbers of the files with the given prefix and suffix, ascending
+    private List<Long> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long replaySegment(Path path, Replay replay) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C crc = new CRC32C();
+            long entries = 0;
+            int position = 0;
+            while (position + 4 <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length < FIXED_ENTRY_BYTES || position + 4 + length > buffer.limit()) {
+                    // Mostly zeros, where nothing was written
+                    position++;
+                    continue;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position + 8, length - 4));
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    // The length itself may be torn, so it cannot be trusted to step over the entry
+                    position++;
+                    continue;
+                }
+                ByteBuffer entry = buffer.slice(position + 8, length - 4);
+                byte type = entry.get();
+                long timestamp = entry.getLong();
+                long id = entry.getLong();
+                long version = entry.getLong();
+                long changeSeq = entry.getLong();
+                boolean completed = entry.get() != 0;
+                int titleLength = entry.getInt();
+                String title = null;
+                if (titleLength >= 0) {
+                    byte[] bytes = new byte[titleLength];
+                    entry.get(bytes);
+                    title = new String(bytes, StandardCharsets.UTF_8);
+                }
+                replay.entry(type, timestamp, new StoredTodo(id, title, completed, version, changeSeq));
+                entries++;
+                position += 4 + length;
+            }
+            return entries;
+        }
+    }
+
+    private static void readSnapshot(Path path, Replay replay) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), new CRC32C());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not a todo snapshot: " + path);
+            }
+            replay.header(in.readLong(), in.readLong(), in.readLong());
+            for (byte kind = in.readByte(); kind != SNAPSHOT_END; kind = in.readByte()) {
+                if (kind == SNAPSHOT_ROW) {
+                    replay.row(new StoredTodo(in.readLong(), readTitle(in), in.readBoolean(), in.readLong(), in.readLong()));
+                } else if (kind == SNAPSHOT_TOMBSTONE) {
+                    replay.tombstone(new Tombstone(in.readLong(), in.readLong(), in.readLong()));
+                } else {
+                    throw new IOException("Corrupt todo snapshot: " + path);
+                }
+            }
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum) {
+                throw new IOException("Checksum mismatch in todo snapshot: " + path);
+            }
+        }
+    }
+
+    private static byte[] encode(byte type, long timestampMillis, StoredTodo row) {
+        byte[] title = row.title() == null ? null : row.title().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(4 + FIXED_ENTRY_BYTES + (title == null ? 0 : title.length));
+        // Length and checksum are filled in once the payload is known
+        entry.position(8)
+                .put(type)
+                .putLong(timestampMillis)
+                .putLong(row.id())
+                .putLong(row.version())
+                .putLong(row.changeSeq())
+                .put((byte) (row.completed() ? 1 : 0))
+                .putInt(title == null ? -1 : title.length);
+        if (title != null) {
+            entry.put(title);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(entry.array(), 8, entry.capacity() - 8);
+        entry.putInt(0, entry.capacity() - 4).putInt(4, (int) crc.getValue());
+        return entry.array();
+    }
+
+    private static void writeTitle(DataOutputStream out, String title) throws IOException {
+        if (title == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readTitle(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final long number;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong position = new AtomicLong();
+
+        private Segment(long number, FileChannel channel, MappedByteBuffer buffer) {
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        // Absolute puts leave the buffer's own position alone, so writers to disjoint ranges can share it
+        boolean tryAppend(byte[] entry) {
+            long start = position.getAndAdd(entry.length);
+            if (start + entry.length > buffer.capacity()) {
+                return false;
+            }
+            // The length goes first so replay can step over an entry whose payload was torn
+            buffer.putInt((int) start, entry.length - 4);
+            buffer.put((int) start + 4, entry, 4, entry.length - 4);
+            return true;
+        }
+    }
+}
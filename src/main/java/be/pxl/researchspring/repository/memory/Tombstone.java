@@ -0,0 +1,5 @@
+package be.pxl.researchspring.repository.memory;
+
+// A deleted todo, kept for delta sync until it is older than the tombstone retention
+record Tombstone(long id, long changeSeq, long deletedAtMillis) {
+}
@@ -0,0 +1,282 @@
+package be.pxl.researchspring.repository.reactive;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.repository.CompletionState;
+import be.pxl.researchspring.repository.CompletionUpdateResult;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The statements of {@link be.pxl.researchspring.repository.TodoRepository} over R2DBC, for the
+ * reactive profile. Nothing here holds a thread while Postgres works; a connection is only taken
+ * from the pool once a result is subscribed to.
+ * <p>
+ * Writes run in the caller's transaction, if any. Ids come from the sequence Hibernate allocates
+ * from, one value per row: they never collide with the blocks Hibernate hands out, but are
+ * sparser than the ones it assigns.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveTodoRepository {
+    private static final String COLUMNS = "id, title, completed, version";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator readOnly;
+
+    public ReactiveTodoRepository(DatabaseClient databaseClient, ReactiveTransactionManager transactionManager) {
+        this.databaseClient = databaseClient;
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        definition.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.readOnly = TransactionalOperator.create(transactionManager, definition);
+    }
+
+    public Flux<TodoDTO> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM todos ORDER BY id")
+                .map(ReactiveTodoRepository::todo)
+                .all();
+    }
+
+    // Postgres only hands rows out in fetch-size portions inside a transaction
+    public Flux<TodoDTO> streamAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM todos ORDER BY id")
+                .filter(statement -> statement.fetchSize(500))
+                .map(ReactiveTodoRepository::todo)
+                .all()
+                .as(readOnly::transactional);
+    }
+
+    public Mono<TodoDTO> findById(long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM todos WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveTodoRepository::todo)
+                .one();
+    }
+
+    public Flux<TodoDTO> findAfter(long after, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM todos WHERE id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveTodoRepository::todo)
+                .all();
+    }
+
+    public Flux<TodoDTO> searchByTitle(String pattern, long after, int limit) {
+        // Same as the JPA search: plan every execution for its pattern so the trigram or prefix
+        // index is used, which takes both statements on one connection
+        Flux<TodoDTO> matches = databaseClient.sql("SELECT " + COLUMNS + " FROM todos " +
+                        "WHERE lower(title) LIKE :pattern ESCAPE '\\' AND id > :after ORDER BY id LIMIT :limit")
+                .bind("pattern", pattern)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveTodoRepository::todo)
+                .all();
+        return databaseClient.sql("SELECT set_config('plan_cache_mode', 'force_custom_plan', true)")
+                .fetch()
+                .rowsUpdated()
+                .thenMany(matches)
+                .as(readOnly::transactional);
+    }
+
+    public Mono<Long> findChangeHorizon() {
+        return databaseClient.sql("SELECT todo_change_horizon() AS horizon")
+                .map(row -> row.get("horizon", Long.class))
+                .one();
+    }
+
+    public Mono<Long> findMinChangeToken() {
+        return databaseClient.sql("SELECT min_token FROM todo_change_horizon WHERE id = 1")
+                .map(row -> row.get("min_token", Long.class))
+                .one();
+    }
+
+    public Flux<TodoDTO> findChanged(long since, long until) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM todos " +
+                        "WHERE change_seq >= :since AND change_seq < :until ORDER BY id")
+                .bind("since", since)
+                .bind("until", until)
+                .map(ReactiveTodoRepository::todo)
+                .all();
+    }
+
+    public Flux<Long> findDeletedIds(long since, long until) {
+        return databaseClient.sql("""
+                        SELECT tomb.id FROM todo_tombstones tomb
+                        WHERE tomb.change_seq >= :since AND tomb.change_seq < :until
+                          AND NOT EXISTS (SELECT 1 FROM todos t WHERE t.id = tomb.id)
+                        ORDER BY tomb.id
+                        """)
+                .bind("since", since)
+                .bind("until", until)
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+
+    public Mono<TodoDTO> findArchivedById(long id) {
+        return databaseClient.sql("SELECT id, title, true AS completed, version FROM todos_archive WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveTodoRepository::todo)
+                .one();
+    }
+
+    public Flux<TodoDTO> findArchivedAfter(long after, int limit) {
+        return databaseClient.sql("SELECT id, title, true AS completed, version FROM todos_archive " +
+                        "WHERE id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveTodoRepository::todo)
+                .all();
+    }
+
+    public Mono<TodoDTO> insert(String title) {
+        return databaseClient.sql("INSERT INTO todos (id, title, completed, version) " +
+                        "VALUES (nextval('todos_id_seq'), :title, false, 0) RETURNING " + COLUMNS)
+                .bind("title", title)
+                .map(ReactiveTodoRepository::todo)
+                .one();
+    }
+
+    // One statement for the whole list; rows come back in the order of the titles
+    public Flux<TodoDTO> insertAll(List<String> titles) {
+        return databaseClient.sql("""
+                        INSERT INTO todos (id, title, completed, version)
+                        SELECT nextval('todos_id_seq'), t.title, false, 0
+                        FROM unnest(CAST(:titles AS text[])) WITH ORDINALITY AS t(title, ord)
+                        ORDER BY t.ord
+                        RETURNING id, title, completed, version
+                        """)
+                .bind("titles", titles.toArray(String[]::new))
+                .map(ReactiveTodoRepository::todo)
+                .all();
+    }
+
+    /**
+     * Same statement as {@code TodoRepository.updateCompleted}: empty when the todo does not
+     * exist, and a null new version when {@code expectedVersion} is given and does not match.
+     */
+    public Mono<CompletionUpdateResult> updateCompleted(long id, boolean completed, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql("""
+                        WITH cur AS (
+                            SELECT id, version, completed, title FROM todos WHERE id = :id FOR UPDATE
+                        ), updated AS (
+                            UPDATE todos t SET completed = :completed, version = t.version + 1
+                            FROM cur
+                            WHERE t.id = cur.id
+                              AND (CAST(:expectedVersion AS bigint) IS NULL OR cur.version = CAST(:expectedVersion AS bigint))
+                            RETURNING t.version
+                        )
+                        SELECT cur.version AS current_version,
+                               cur.completed AS previous_completed,
+                               (SELECT version FROM updated) AS new_version,
+                               cur.title AS title
+                        FROM cur
+                        """)
+                .bind("id", id)
+                .bind("completed", completed);
+        statement = expectedVersion == null
+                ? statement.bindNull("expectedVersion", Long.class)
+                : statement.bind("expectedVersion", expectedVersion);
+        return statement
+                .map(row -> (CompletionUpdateResult) new UpdateRow(
+                        row.get("current_version", Long.class),
+                        row.get("previous_completed", Boolean.class),
+                        row.get("new_version", Long.class),
+                        row.get("title", String.class)))
+                .one();
+    }
+
+    // Locks in id order like the JPA statement, so overlapping bulk updates cannot deadlock
+    public Flux<CompletionState> updateCompletedReturningPrevious(Collection<Long> ids, boolean completed) {
+        return databaseClient.sql("""
+                        WITH prev AS (
+                            SELECT id, completed FROM todos WHERE id = ANY(:ids) ORDER BY id FOR UPDATE
+                        )
+                        UPDATE todos t SET completed = :completed, version = t.version + 1
+                        FROM prev
+                        WHERE t.id = prev.id
+                        RETURNING t.id AS id, prev.completed AS completed
+                        """)
+                .bind("ids", ids.toArray(Long[]::new))
+                .bind("completed", completed)
+                .map(ReactiveTodoRepository::state)
+                .all();
+    }
+
+    public Flux<CompletionState> deleteReturningState(Collection<Long> ids) {
+        return databaseClient.sql("DELETE FROM todos WHERE id = ANY(:ids) RETURNING id, completed")
+                .bind("ids", ids.toArray(Long[]::new))
+                .map(ReactiveTodoRepository::state)
+                .all();
+    }
+
+    public Mono<Boolean> deleteReturningCompleted(long id) {
+        return databaseClient.sql("DELETE FROM todos WHERE id = :id RETURNING completed")
+                .bind("id", id)
+                .map(row -> row.get("completed", Boolean.class))
+                .one();
+    }
+
+    public Mono<Long> deleteCompleted() {
+        return databaseClient.sql("DELETE FROM todos WHERE completed")
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static TodoDTO todo(Readable row) {
+        return new TodoDTO(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("completed", Boolean.class),
+                row.get("version", Long.class));
+    }
+
+    private static CompletionState state(Readable row) {
+        return new StateRow(row.get("id", Long.class), row.get("completed", Boolean.class));
+    }
+
+    private record StateRow(Long id, Boolean completed) implements CompletionState {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Boolean getCompleted() {
+            return completed;
+        }
+    }
+
+    private record UpdateRow(Long currentVersion, Boolean previousCompleted, Long newVersion, String title)
+            implements CompletionUpdateResult {
+        @Override
+        public Long getCurrentVersion() {
+            return currentVersion;
+        }
+
+        @Override
+        public Boolean getPreviousCompleted() {
+            return previousCompleted;
+        }
+
+        @Override
+        public Long getNewVersion() {
+            return newVersion;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+    }
+}
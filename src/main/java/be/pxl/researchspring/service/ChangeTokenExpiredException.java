@@ -0,0 +1,8 @@
+package be.pxl.researchspring.service;
+
+// The tombstones a change token relies on have been pruned; the client has to resync from scratch
+public class ChangeTokenExpiredException extends RuntimeException {
+    public ChangeTokenExpiredException(long token) {
+        super("Change token " + token + " has expired");
+    }
+}
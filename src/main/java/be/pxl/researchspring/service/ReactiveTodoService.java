@@ -0,0 +1,49 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.BulkOutcome;
+import be.pxl.researchspring.api.response.TodoChangesDTO;
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoStatsDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link TodoService} for the reactive profile. Errors are signalled
+ * with the same exceptions, and versions follow the same rules: every write to a todo bumps its
+ * version by one, and a conditional update only applies to the version the caller last saw.
+ */
+public interface ReactiveTodoService {
+    Mono<List<TodoDTO>> getAllTodos();
+    // See TodoService.getTodosVersion
+    String getTodosVersion();
+    Mono<TodoDTO> getTodo(Long id);
+    Mono<List<TodoDTO>> getTodosAfter(Long after, int limit);
+
+    Mono<List<TodoDTO>> getArchivedTodosAfter(Long after, int limit);
+    Mono<TodoDTO> getArchivedTodo(Long id);
+
+    Mono<List<TodoDTO>> search(String query, boolean prefix, Long after, int limit);
+
+    // See TodoService.getChangesSince
+    Mono<TodoChangesDTO> getChangesSince(long since);
+
+    Mono<TodoStatsDTO> getStats();
+    Flux<TodoDTO> streamTodos();
+
+    Mono<TodoDTO> create(String title);
+    Mono<List<TodoDTO>> createAll(List<String> titles);
+    Mono<Void> updateCompleted(Long id, Boolean completed);
+    /**
+     * @param expectedVersion version the caller last saw, or null to update unconditionally
+     * @return the version after the update
+     */
+    Mono<Long> updateCompleted(Long id, Boolean completed, Long expectedVersion);
+    Mono<Void> delete(Long id);
+
+    Mono<Map<Long, BulkOutcome>> updateCompleted(List<Long> ids, boolean completed);
+    Mono<Map<Long, BulkOutcome>> deleteAll(List<Long> ids);
+    Mono<Integer> deleteAllCompleted();
+}
@@ -1,19 +1,59 @@
 package be.pxl.researchspring.service;
 
+import be.pxl.researchspring.api.response.BulkOutcome;
+import be.pxl.researchspring.api.response.TodoChangesDTO;
 import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoStatsDTO;
 import be.pxl.researchspring.domain.Todo;
 import java.util.concurrent.CompletableFuture;
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface TodoService {
     List<TodoDTO> getAllTodos();
+    /**
+     * @return version of the whole collection, changed by every committed write
+     */
+    String getTodosVersion();
+    TodoDTO getTodo(Long id);
+    List<TodoDTO> getTodosAfter(Long after, int limit);
+
+    // The read methods above only see live todos; archived ones are read here, paged by id
+    List<TodoDTO> getArchivedTodosAfter(Long after, int limit);
+    TodoDTO getArchivedTodo(Long id);
+
+    // Case-insensitive title match, paged by id like getTodosAfter
+    List<TodoDTO> search(String query, boolean prefix, Long after, int limit);
+
+    /**
+     * Returns the todos written and the ids deleted since {@code since}, plus the token to pass
+     * next time. A token of 0 returns every todo. Throws {@link ChangeTokenExpiredException} when
+     * the deletes since the token are no longer known.
+     */
+    TodoChangesDTO getChangesSince(long since);
+
+    // Maintained incrementally by the write methods, so it never scans the table
+    TodoStatsDTO getStats();
+    void streamTodos(Consumer<TodoDTO> consumer);
 
     Todo create(String title);
+    List<Todo> createAll(List<String> titles);
     void updateCompleted(Long id, Boolean completed);
+    /**
+     * @param expectedVersion version the caller last saw, or null to update unconditionally
+     * @return the version after the update
+     */
+    long updateCompleted(Long id, Boolean completed, Long expectedVersion);
     void delete(Long id);
 
+    // Set-based bulk operations, one statement per chunk of ids
+    Map<Long, BulkOutcome> updateCompleted(List<Long> ids, boolean completed);
+    Map<Long, BulkOutcome> deleteAll(List<Long> ids);
+    int deleteAllCompleted();
+
     // Asynchronous operations for concurrent processing
     CompletableFuture<Todo> createAsync(String title);
     CompletableFuture<Void> updateCompletedAsync(Long id, Boolean completed);
@@ -0,0 +1,231 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.repository.TodoStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for completion toggles. Only the latest desired state per id is kept
+ * (last writer wins); changed ids are written as batched UPDATEs on a fixed delay or as soon
+ * as {@code maxPending} ids are waiting, and the buffer is drained on shutdown.
+ */
+@Component
+public class CompletionWriteBehindBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(CompletionWriteBehindBuffer.class);
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+
+    private final TodoStore todoRepository;
+    private final TodoReadCache readCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long flushIntervalMillis;
+    private final int maxPending;
+
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    // Ids a service transaction is writing directly; flushes leave them alone until it completes
+    private final Map<Long, Integer> held = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong togglesAccepted = new AtomicLong();
+    private final AtomicLong rowsFlushed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private ScheduledExecutorService flusher;
+
+    public CompletionWriteBehindBuffer(TodoStore todoRepository,
+                                       TodoReadCache readCache,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${todo.write-behind.enabled:false}") boolean enabled,
+                                       @Value("${todo.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+                                       @Value("${todo.write-behind.max-pending:1000}") int maxPending) {
+        this.todoRepository = todoRepository;
+        this.readCache = readCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        // A flush requested from inside a service transaction commits on its own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPending = maxPending;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TodoWriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Write-behind enabled: flush every {} ms or at {} pending ids", flushIntervalMillis, maxPending);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        // Drain whatever arrived after the last scheduled flush
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void put(Long id, boolean completed) {
+        pending.put(id, completed);
+        togglesAccepted.incrementAndGet();
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: stop() drains the buffer
+            }
+        }
+    }
+
+    /**
+     * Keeps flushes away from todos the current transaction writes directly, e.g. a versioned
+     * update or a delete. Waits for a flush that is already running, so none can write an older
+     * toggle over the direct write. When the transaction commits, the direct write supersedes
+     * the toggles buffered at this point and they are dropped; when it rolls back, they stay
+     * and are flushed as usual.
+     */
+    public void holdUntilCompletion(Collection<Long> ids) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Boolean> superseded = new HashMap<>();
+        // Registered first: outside a transaction this throws before anything is held
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    // Only entries unchanged since the hold; a different toggle buffered meanwhile stays
+                    superseded.forEach(pending::remove);
+                }
+                ids.forEach(id -> held.computeIfPresent(id, (key, count) -> count == 1 ? null : count - 1));
+            }
+        });
+        synchronized (this) {
+            for (Long id : ids) {
+                held.merge(id, 1, Integer::sum);
+                Boolean completed = pending.get(id);
+                if (completed != null) {
+                    superseded.put(id, completed);
+                }
+            }
+        }
+    }
+
+    public void holdUntilCompletion(Long id) {
+        holdUntilCompletion(List.of(id));
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    public TodoDTO overlay(TodoDTO todo) {
+        Boolean completed = pending.get(todo.getId());
+        if (completed == null || completed == todo.isCompleted()) {
+            return todo;
+        }
+        return new TodoDTO(todo.getId(), todo.getTitle(), completed, todo.getVersion());
+    }
+
+    public List<TodoDTO> overlay(List<TodoDTO> todos) {
+        if (pending.isEmpty()) {
+            return todos;
+        }
+        return todos.stream()
+                .map(this::overlay)
+                .toList();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Write-behind flush failed, pending toggles are kept for the next attempt", e);
+        }
+    }
+
+    synchronized void flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Boolean> snapshot = new HashMap<>(pending);
+        snapshot.keySet().removeAll(held.keySet());
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        List<Long> completedIds = new ArrayList<>();
+        List<Long> openIds = new ArrayList<>();
+        snapshot.forEach((id, completed) -> (completed ? completedIds : openIds).add(id));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            updateInChunks(completedIds, true);
+            updateInChunks(openIds, false);
+        });
+
+        // Keep entries that were toggled again while flushing; they go out with the next flush
+        snapshot.forEach((id, completed) -> {
+            pending.remove(id, completed);
+            readCache.invalidate(id);
+        });
+        flushes.incrementAndGet();
+        rowsFlushed.addAndGet(snapshot.size());
+    }
+
+    private void updateInChunks(List<Long> ids, boolean completed) {
+        for (int from = 0; from < ids.size(); from += UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, ids.size()));
+            todoRepository.updateCompletedForIds(chunk, completed);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getTogglesAccepted() {
+        return togglesAccepted.get();
+    }
+
+    public long getRowsFlushed() {
+        return rowsFlushed.get();
+    }
+
+    public long getFlushes() {
+        return flushes.get();
+    }
+}
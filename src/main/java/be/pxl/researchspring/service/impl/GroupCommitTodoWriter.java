@@ -0,0 +1,257 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects concurrent create requests and writes them as one transaction per group.
+ * A group is closed when it reaches {@code maxGroupSize} or when the window that started
+ * with its first request expires, whichever comes first.
+ * <p>
+ * Cancelling the future returned by {@link #submit} withdraws the create as long as it has not
+ * been taken into a commit; once it has, cancel returns false and the future completes with
+ * the outcome of that commit.
+ */
+@Component
+public class GroupCommitTodoWriter {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitTodoWriter.class);
+
+    private final TodoStore todoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxGroupSize;
+    private final long timeoutMillis;
+    private final BlockingQueue<PendingCreate> queue;
+
+    private final AtomicLong groupsCommitted = new AtomicLong();
+    private final AtomicLong todosCommitted = new AtomicLong();
+    private final AtomicLong groupsFailed = new AtomicLong();
+    private final AtomicLong createsCancelled = new AtomicLong();
+    private volatile long startedAtNanos;
+    private volatile boolean running;
+    private Thread worker;
+
+    public GroupCommitTodoWriter(TodoStore todoRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${todo.group-commit.enabled:false}") boolean enabled,
+                                 @Value("${todo.group-commit.window-ms:5}") long windowMillis,
+                                 @Value("${todo.group-commit.max-size:100}") int maxGroupSize,
+                                 @Value("${todo.group-commit.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${todo.group-commit.timeout-ms:5000}") long timeoutMillis) {
+        this.todoRepository = todoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxGroupSize = maxGroupSize;
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        startedAtNanos = System.nanoTime();
+        worker = new Thread(this::run, "TodoGroupCommit");
+        worker.setDaemon(true);
+        worker.start();
+        logger.info("Group commit enabled: window {} ms, max group size {}", windowMillis, maxGroupSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Todo> submit(String title) {
+        if (!running) {
+            return CompletableFuture.failedFuture(stopped());
+        }
+        PendingCreate pending = new PendingCreate(new Todo(title));
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        // stop() may have run since the check above, after the worker last saw an empty queue
+        if (!running && queue.remove(pending) && pending.claim()) {
+            pending.completeExceptionally(stopped());
+        }
+        return pending;
+    }
+
+    private void run() {
+        List<PendingCreate> group = new ArrayList<>(maxGroupSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (group.size() < maxGroupSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(group, maxGroupSize - group.size());
+                        break;
+                    }
+                    PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commit(group);
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        // The group an interrupt cut short, and anything queued since; nobody else completes them
+        queue.drainTo(group);
+        group.removeIf(pending -> !pending.claim());
+        if (!group.isEmpty()) {
+            logger.warn("Group commit writer stopped with {} todos uncommitted", group.size());
+            IllegalStateException stopped = stopped();
+            group.forEach(pending -> pending.completeExceptionally(stopped));
+        }
+    }
+
+    private void commit(List<PendingCreate> group) {
+        // Creates cancelled while the group was filling are left out; the rest can no longer be
+        group.removeIf(pending -> !pending.claim());
+        if (group.isEmpty()) {
+            return;
+        }
+        List<Todo> todos = group.stream()
+                .map(PendingCreate::todo)
+                .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> todoRepository.saveAll(todos));
+            groupsCommitted.incrementAndGet();
+            todosCommitted.addAndGet(todos.size());
+            group.forEach(pending -> pending.complete(pending.todo()));
+        } catch (RuntimeException e) {
+            groupsFailed.incrementAndGet();
+            logger.warn("Group commit of {} todos failed", group.size(), e);
+            group.forEach(pending -> pending.completeExceptionally(e));
+        }
+    }
+
+    private static IllegalStateException stopped() {
+        return new IllegalStateException("Group commit writer is not running");
+    }
+
+    /**
+     * How long a caller should wait for its group to commit before giving up on it.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getGroupsCommitted() {
+        return groupsCommitted.get();
+    }
+
+    public long getTodosCommitted() {
+        return todosCommitted.get();
+    }
+
+    public long getGroupsFailed() {
+        return groupsFailed.get();
+    }
+
+    public long getCreatesCancelled() {
+        return createsCancelled.get();
+    }
+
+    /**
+     * Average number of committed groups per second since the writer started.
+     */
+    public double getCommitRate() {
+        if (!running && worker == null) {
+            return 0;
+        }
+        double seconds = (System.nanoTime() - startedAtNanos) / 1_000_000_000.0;
+        return seconds > 0 ? groupsCommitted.get() / seconds : 0;
+    }
+
+    // A create and its outcome; whichever of claim and cancel comes first decides whether it is written
+    private final class PendingCreate extends CompletableFuture<Todo> {
+        private final Todo todo;
+        private final AtomicBoolean decided = new AtomicBoolean();
+
+        private PendingCreate(Todo todo) {
+            this.todo = todo;
+        }
+
+        Todo todo() {
+            return todo;
+        }
+
+        boolean claim() {
+            return decided.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!claim()) {
+                return false;
+            }
+            queue.remove(this);
+            createsCancelled.incrementAndGet();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        // Dependent stages are plain futures and cannot withdraw the create
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new CompletableFuture<>();
+        }
+    }
+}
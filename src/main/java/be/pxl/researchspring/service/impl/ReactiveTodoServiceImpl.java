@@ -0,0 +1,287 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.api.response.BulkOutcome;
+import be.pxl.researchspring.api.response.TodoChangesDTO;
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import be.pxl.researchspring.api.response.TodoStatsDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.CompletionState;
+import be.pxl.researchspring.repository.reactive.ReactiveTodoRepository;
+import be.pxl.researchspring.service.ChangeTokenExpiredException;
+import be.pxl.researchspring.service.ReactiveTodoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static be.pxl.researchspring.service.impl.TodoServiceSupport.*;
+
+/**
+ * The TodoService rules on R2DBC: the same statements, cache invalidations, counter updates and
+ * events, run when the database answers instead of on a thread waiting for it. Side effects of a
+ * write happen once its statement or transaction has committed.
+ * <p>
+ * Group commit and write-behind are not applied here; each request already costs no more than
+ * a pooled connection for the duration of its statements.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTodoServiceImpl implements ReactiveTodoService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTodoServiceImpl.class);
+    // Same policy as the @Retryable updates: lock timeouts and deadlocks, three attempts in all
+    private static final Retry LOCK_FAILURE_RETRY = Retry.fixedDelay(2, Duration.ofMillis(50))
+            .filter(PessimisticLockingFailureException.class::isInstance)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+    private final ReactiveTodoRepository todoRepository;
+    private final TodoReadCache readCache;
+    private final TodoStatsCounter stats;
+    private final TodoTitleIndex titleIndex;
+    private final ApplicationEventPublisher events;
+    private final TransactionalOperator readCommitted;
+    private final TransactionalOperator readOnly;
+    private final Counter versionConflicts;
+
+    public ReactiveTodoServiceImpl(ReactiveTodoRepository todoRepository,
+                                   TodoReadCache readCache,
+                                   TodoStatsCounter stats,
+                                   TodoTitleIndex titleIndex,
+                                   ApplicationEventPublisher events,
+                                   ReactiveTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.todoRepository = todoRepository;
+        this.readCache = readCache;
+        this.stats = stats;
+        this.titleIndex = titleIndex;
+        this.events = events;
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.readCommitted = TransactionalOperator.create(transactionManager, definition);
+        DefaultTransactionDefinition readOnlyDefinition = new DefaultTransactionDefinition(definition);
+        readOnlyDefinition.setReadOnly(true);
+        this.readOnly = TransactionalOperator.create(transactionManager, readOnlyDefinition);
+        // Shared with TodoServiceImpl: the registry hands out the already registered counter
+        this.versionConflicts = Counter.builder("todo.update.version.conflicts")
+                .description("Completion updates rejected because the expected version did not match")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<List<TodoDTO>> getAllTodos() {
+        return readCache.getAll(todoRepository.findAll().collectList());
+    }
+
+    @Override
+    public String getTodosVersion() {
+        return readCache.version();
+    }
+
+    @Override
+    public Mono<TodoDTO> getTodo(Long id) {
+        return readCache.get(id, todoRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Todo not found with id: " + id))));
+    }
+
+    @Override
+    public Mono<List<TodoDTO>> getTodosAfter(Long after, int limit) {
+        return todoRepository.findAfter(after == null ? 0L : after, limit).collectList();
+    }
+
+    @Override
+    public Mono<List<TodoDTO>> getArchivedTodosAfter(Long after, int limit) {
+        return todoRepository.findArchivedAfter(after == null ? 0L : after, limit).collectList();
+    }
+
+    @Override
+    public Mono<TodoDTO> getArchivedTodo(Long id) {
+        return todoRepository.findArchivedById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Archived todo not found with id: " + id)));
+    }
+
+    @Override
+    public Mono<List<TodoDTO>> search(String query, boolean prefix, Long after, int limit) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        long cursor = after == null ? 0L : after;
+        if (titleIndex.isReady()) {
+            return Mono.fromSupplier(() -> titleIndex.search(needle, prefix, cursor, limit));
+        }
+        String pattern = (prefix ? "" : "%") + escapeLike(needle) + "%";
+        return todoRepository.searchByTitle(pattern, cursor, limit).collectList();
+    }
+
+    @Override
+    public Mono<TodoChangesDTO> getChangesSince(long since) {
+        Mono<Void> tokenCheck = since > 0
+                ? todoRepository.findMinChangeToken()
+                        .filter(minToken -> since < minToken)
+                        .flatMap(minToken -> Mono.<Void>error(new ChangeTokenExpiredException(since)))
+                : Mono.empty();
+        return tokenCheck
+                .then(todoRepository.findChangeHorizon())
+                // Writes still in flight sit at or above the horizon and show up in a later window
+                .map(horizon -> Math.max(since, horizon))
+                .flatMap(until -> {
+                    Mono<List<Long>> deleted = since > 0
+                            ? todoRepository.findDeletedIds(since, until).collectList()
+                            : Mono.just(List.of());
+                    return todoRepository.findChanged(since, until).collectList()
+                            .flatMap(upserts -> deleted.map(deletedIds -> new TodoChangesDTO(upserts, deletedIds, until)));
+                })
+                .as(readOnly::transactional);
+    }
+
+    @Override
+    public Mono<TodoStatsDTO> getStats() {
+        return Mono.fromSupplier(stats::get);
+    }
+
+    @Override
+    public Flux<TodoDTO> streamTodos() {
+        return todoRepository.streamAll();
+    }
+
+    @Override
+    public Mono<TodoDTO> create(String title) {
+        logger.info("Creating new todo with title: {}", title);
+        return todoRepository.insert(title)
+                .doOnNext(todo -> {
+                    readCache.invalidate(todo.getId());
+                    stats.add(1, 0);
+                    events.publishEvent(TodoEventDTO.created(todo));
+                })
+                .as(this::counted);
+    }
+
+    @Override
+    public Mono<List<TodoDTO>> createAll(List<String> titles) {
+        logger.info("Creating {} todos", titles.size());
+        return todoRepository.insertAll(titles)
+                .collectList()
+                .doOnNext(created -> {
+                    readCache.invalidateAll();
+                    stats.add(created.size(), 0);
+                    events.publishEvent(TodoEventDTO.resync());
+                })
+                .as(this::counted);
+    }
+
+    @Override
+    public Mono<Void> updateCompleted(Long id, Boolean completed) {
+        return updateCompleted(id, completed, null).then();
+    }
+
+    @Override
+    public Mono<Long> updateCompleted(Long id, Boolean completed, Long expectedVersion) {
+        logger.info("Updating todo {} completed status to: {}", id, completed);
+        return todoRepository.updateCompleted(id, completed, expectedVersion)
+                .retryWhen(LOCK_FAILURE_RETRY)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Todo not found with id: " + id)))
+                .flatMap(result -> {
+                    if (!result.isUpdated()) {
+                        versionConflicts.increment();
+                        return Mono.error(new ObjectOptimisticLockingFailureException(Todo.class, id));
+                    }
+                    readCache.invalidate(id);
+                    stats.add(0, completedDelta(result.getPreviousCompleted(), completed));
+                    events.publishEvent(TodoEventDTO.updated(new TodoDTO(id, result.getTitle(), completed, result.getNewVersion())));
+                    return Mono.just(result.getNewVersion());
+                })
+                .as(this::counted);
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        logger.info("Deleting todo with id: {}", id);
+        return todoRepository.deleteReturningCompleted(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Todo not found with id: " + id)))
+                .doOnNext(wasCompleted -> {
+                    readCache.invalidate(id);
+                    stats.add(-1, wasCompleted ? -1 : 0);
+                    events.publishEvent(TodoEventDTO.deleted(id));
+                })
+                .then()
+                .as(this::counted);
+    }
+
+    @Override
+    public Mono<Map<Long, BulkOutcome>> updateCompleted(List<Long> ids, boolean completed) {
+        logger.info("Updating completed status of {} todos to: {}", ids.size(), completed);
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        return inChunks(distinctIds, chunk -> todoRepository.updateCompletedReturningPrevious(chunk, completed))
+                .as(readCommitted::transactional)
+                .collectList()
+                .map(previous -> {
+                    readCache.invalidateAll();
+                    stats.add(0, previous.stream().mapToLong(row -> completedDelta(row.getCompleted(), completed)).sum());
+                    events.publishEvent(TodoEventDTO.resync());
+                    return outcomes(distinctIds, previous, BulkOutcome.UPDATED);
+                })
+                .as(this::counted);
+    }
+
+    @Override
+    public Mono<Map<Long, BulkOutcome>> deleteAll(List<Long> ids) {
+        logger.info("Deleting {} todos", ids.size());
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        return inChunks(distinctIds, todoRepository::deleteReturningState)
+                .as(readCommitted::transactional)
+                .collectList()
+                .map(deleted -> {
+                    readCache.invalidateAll();
+                    stats.add(-deleted.size(), -deleted.stream().filter(CompletionState::getCompleted).count());
+                    events.publishEvent(TodoEventDTO.resync());
+                    return outcomes(distinctIds, deleted, BulkOutcome.DELETED);
+                })
+                .as(this::counted);
+    }
+
+    @Override
+    public Mono<Integer> deleteAllCompleted() {
+        return todoRepository.deleteCompleted()
+                .map(Long::intValue)
+                .doOnNext(deleted -> {
+                    logger.info("Deleted {} completed todos", deleted);
+                    readCache.invalidateAll();
+                    stats.add(-deleted, -deleted);
+                    events.publishEvent(TodoEventDTO.resync());
+                })
+                .as(this::counted);
+    }
+
+    // Statements commit before their delta reaches the counters, so reconciliation holds off until it has
+    private <T> Mono<T> counted(Mono<T> write) {
+        return Mono.defer(() -> {
+            stats.beginWrite();
+            return write.doFinally(signal -> stats.endWrite());
+        });
+    }
+
+    // One statement per chunk, one after the other on the transaction's connection
+    private static Flux<CompletionState> inChunks(List<Long> ids,
+                                                  Function<List<Long>, Flux<CompletionState>> statement) {
+        return Flux.range(0, (ids.size() + BULK_CHUNK_SIZE - 1) / BULK_CHUNK_SIZE)
+                .concatMap(chunk -> statement.apply(ids.subList(chunk * BULK_CHUNK_SIZE,
+                        Math.min((chunk + 1) * BULK_CHUNK_SIZE, ids.size()))));
+    }
+}
@@ -0,0 +1,187 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import be.pxl.researchspring.repository.TodoArchiveRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves completed todos older than {@code todo.archive.min-age} from the live table into the
+ * archive, so the live table, its indexes and its vacuums only carry what clients work with.
+ * <p>
+ * Each run moves bounded batches, one short transaction each, with a pause in between. It runs
+ * on a thread of its own so a long backlog never delays the other scheduled jobs, and it stops
+ * as soon as foreground requests are waiting for a connection of the primary pool; the next run
+ * continues where it stopped.
+ */
+@Component
+@Profile("!memory")
+@ConditionalOnProperty(name = "todo.archive.enabled", havingValue = "true")
+public class TodoArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(TodoArchiver.class);
+
+    private final TodoArchiveRepository archiveRepository;
+    private final CompletionWriteBehindBuffer writeBehind;
+    private final TodoReadCache readCache;
+    private final TodoStatsCounter stats;
+    private final ApplicationEventPublisher events;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration minAge;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final long intervalMillis;
+
+    private final AtomicLong rowsArchived = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong deferrals = new AtomicLong();
+    private volatile long lastRunRows;
+    private ScheduledExecutorService runner;
+
+    public TodoArchiver(TodoArchiveRepository archiveRepository,
+                        CompletionWriteBehindBuffer writeBehind,
+                        TodoReadCache readCache,
+                        TodoStatsCounter stats,
+                        ApplicationEventPublisher events,
+                        DataSource dataSource,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${todo.archive.min-age}") Duration minAge,
+                        @Value("${todo.archive.batch-size}") int batchSize,
+                        @Value("${todo.archive.batch-delay-ms}") long batchDelayMillis,
+                        @Value("${todo.archive.interval-ms}") long intervalMillis) {
+        this.archiveRepository = archiveRepository;
+        this.writeBehind = writeBehind;
+        this.readCache = readCache;
+        this.stats = stats;
+        this.events = events;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.batchDelayMillis = batchDelayMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        runner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TodoArchiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        runner.scheduleWithFixedDelay(this::runQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Archiving todos completed more than {} ago, {} per batch every {} ms",
+                minAge, batchSize, batchDelayMillis);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        runner.shutdownNow();
+        runner.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Archives batches until no eligible todo is left, the foreground needs the pool or the
+     * thread is interrupted. Returns the number of todos archived.
+     */
+    public long run() throws InterruptedException {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(minAge);
+        long archived = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            if (foregroundWaiting()) {
+                deferrals.incrementAndGet();
+                logger.debug("Archiving deferred: requests are waiting for a connection");
+                break;
+            }
+            int moved = archiveBatch(cutoff);
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            Thread.sleep(batchDelayMillis);
+        }
+        lastRunRows = archived;
+        if (archived > 0) {
+            logger.info("Archived {} todos completed before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(OffsetDateTime cutoff) {
+        // Buffered toggles must reach the table first, or a todo reopened moments ago could
+        // still be archived as completed. Flushed before the batch holds a connection, since the
+        // flush commits on one of its own
+        writeBehind.flush();
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> moved = archiveRepository.archiveCompletedBefore(cutoff, batchSize);
+            if (!moved.isEmpty()) {
+                readCache.invalidateAll();
+                stats.add(-moved.size(), -moved.size());
+                moved.forEach(id -> events.publishEvent(TodoEventDTO.deleted(id)));
+            }
+            return moved;
+        });
+        rowsArchived.addAndGet(ids.size());
+        batches.incrementAndGet();
+        return ids.size();
+    }
+
+    private boolean foregroundWaiting() {
+        try {
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            return pool != null && pool.getThreadsAwaitingConnection() > 0;
+        } catch (SQLException e) {
+            // Not a Hikari pool: nothing to watch, the batch delay is the only throttle
+            return false;
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Archiving failed, retrying on the next run", e);
+        }
+    }
+
+    public long getRowsArchived() {
+        return rowsArchived.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getDeferrals() {
+        return deferrals.get();
+    }
+
+    public long getLastRunRows() {
+        return lastRunRows;
+    }
+}
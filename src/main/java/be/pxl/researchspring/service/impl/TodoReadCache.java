@@ -0,0 +1,159 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.config.CacheConfig;
+import be.pxl.researchspring.config.ReadWriteRoutingDataSource;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of the TodoService reads.
+ * Every write bumps a generation counter after it commits; a cached collection is only served
+ * while its generation is current and an item loaded across a write is not cached, so a load
+ * racing with a write is never served stale.
+ * <p>
+ * Loads always read from the primary, also when read-only transactions go to a replica:
+ * a replica that has not caught up with the latest write could otherwise pin its stale
+ * result in the cache and in clients' ETags for as long as no further write happens.
+ */
+@Component
+public class TodoReadCache {
+    private static final String ALL_KEY = "all";
+
+    private final Cache collectionCache;
+    private final Cache itemCache;
+    // Distinguishes generations across restarts so old ETags never match a new process
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+
+    public TodoReadCache(CacheManager cacheManager) {
+        this.collectionCache = cacheManager.getCache(CacheConfig.TODOS_CACHE);
+        this.itemCache = cacheManager.getCache(CacheConfig.TODO_CACHE);
+    }
+
+    public List<TodoDTO> getAll(Supplier<List<TodoDTO>> loader) {
+        long current = generation.get();
+        CachedCollection cached = collectionCache.get(ALL_KEY, CachedCollection.class);
+        if (cached != null && cached.generation() == current) {
+            return cached.todos();
+        }
+        List<TodoDTO> todos = ReadWriteRoutingDataSource.onPrimary(loader);
+        collectionCache.put(ALL_KEY, new CachedCollection(current, todos));
+        return todos;
+    }
+
+    public TodoDTO get(Long id, Supplier<TodoDTO> loader) {
+        TodoDTO cached = itemCache.get(id, TodoDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        long before = generation.get();
+        TodoDTO todo = ReadWriteRoutingDataSource.onPrimary(loader);
+        // Skip the put if a write committed while loading; the bump happens before the evict
+        if (generation.get() == before) {
+            itemCache.put(id, todo);
+        }
+        return todo;
+    }
+
+    // Reactive counterparts of the two reads above; the load is subscribed to rather than called.
+    // The reactive stack has a single pool, so its loads need no routing.
+    public Mono<List<TodoDTO>> getAll(Mono<List<TodoDTO>> loader) {
+        return Mono.defer(() -> {
+            long current = generation.get();
+            CachedCollection cached = collectionCache.get(ALL_KEY, CachedCollection.class);
+            if (cached != null && cached.generation() == current) {
+                return Mono.just(cached.todos());
+            }
+            return loader.doOnNext(todos -> collectionCache.put(ALL_KEY, new CachedCollection(current, todos)));
+        });
+    }
+
+    public Mono<TodoDTO> get(Long id, Mono<TodoDTO> loader) {
+        return Mono.defer(() -> {
+            TodoDTO cached = itemCache.get(id, TodoDTO.class);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long before = generation.get();
+            return loader.doOnNext(todo -> {
+                if (generation.get() == before) {
+                    itemCache.put(id, todo);
+                }
+            });
+        });
+    }
+
+    /**
+     * Version of the whole collection, suitable as an ETag. Read it before loading the
+     * collection so a concurrent write can only make the tag older than the data, never newer.
+     */
+    public String version() {
+        return epoch + "-" + generation.get();
+    }
+
+    public void invalidate(Long id) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            itemCache.evict(id);
+            collectionCache.evict(ALL_KEY);
+        });
+    }
+
+    /**
+     * Marks the collection as changed without touching cached items.
+     */
+    public void invalidateCollection() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            collectionCache.evict(ALL_KEY);
+        });
+    }
+
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            itemCache.clear();
+            collectionCache.evict(ALL_KEY);
+        });
+    }
+
+    public CacheStats getCollectionStats() {
+        return stats(collectionCache);
+    }
+
+    public CacheStats getItemStats() {
+        return stats(itemCache);
+    }
+
+    private static CacheStats stats(Cache cache) {
+        return ((CaffeineCache) cache).getNativeCache().stats();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Rolled back writes change nothing, but evicting is always safe
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record CachedCollection(long generation, List<TodoDTO> todos) {
+    }
+}
@@ -0,0 +1,42 @@
+package be.pxl.researchspring.service.impl;
+
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts retried attempts and exhausted retries of the {@code @Retryable} service methods.
+ * spring-retry reports every exception to listeners, including the 404s and 412s that fail
+ * the call at once, so only the retryable lock failures are counted.
+ */
+@Component("todoRetryListener")
+public class TodoRetryListener implements RetryListener {
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (throwable instanceof PessimisticLockingFailureException) {
+            retries.increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (context.getRetryCount() > 0 && throwable instanceof PessimisticLockingFailureException) {
+            exhausted.increment();
+        }
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+}
@@ -1,100 +1,392 @@
 package be.pxl.researchspring.service.impl;
 
+import be.pxl.researchspring.api.response.BulkOutcome;
+import be.pxl.researchspring.api.response.TodoChangesDTO;
 import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import be.pxl.researchspring.api.response.TodoStatsDTO;
 import be.pxl.researchspring.domain.Todo;
-import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.repository.CompletionState;
+import be.pxl.researchspring.repository.CompletionUpdateResult;
+import be.pxl.researchspring.repository.TodoArchiveRepository;
+import be.pxl.researchspring.repository.TodoStore;
+import be.pxl.researchspring.service.ChangeTokenExpiredException;
 import be.pxl.researchspring.service.TodoService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static be.pxl.researchspring.service.impl.TodoServiceSupport.*;
 
 @Service
 @Transactional
+@Timed(value = "todo.service", histogram = true, description = "TodoService operations")
 public class TodoServiceImpl  implements TodoService {
     private static final Logger logger = LoggerFactory.getLogger(TodoServiceImpl.class);
 
     @Autowired
-    private TodoRepository todoRepository;
+    private TodoStore todoRepository;
+
+    @Autowired
+    private GroupCommitTodoWriter groupCommitWriter;
+
+    @Autowired
+    private TodoReadCache readCache;
+
+    @Autowired
+    private CompletionWriteBehindBuffer writeBehind;
+
+    @Autowired
+    private TodoStatsCounter stats;
+
+    @Autowired
+    private TodoTitleIndex titleIndex;
 
+    // Absent in the memory profile, which keeps every todo live
+    @Autowired(required = false)
+    private TodoArchiveRepository archiveRepository;
+
+    // Listeners run after commit, so subscribers never hear about rolled back writes
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${todo.batch.size:50}")
+    private int batchSize;
+
+    private final Counter versionConflicts;
+    // For writes that must do something before their transaction opens
+    private final TransactionTemplate readCommitted;
+
+    public TodoServiceImpl(MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.versionConflicts = Counter.builder("todo.update.version.conflicts")
+                .description("Completion updates rejected because the expected version did not match")
+                .register(meterRegistry);
+        this.readCommitted = new TransactionTemplate(transactionManager);
+        this.readCommitted.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    // Reads select straight into TodoDTO inside a read-only transaction, which also
+    // switches Hibernate to manual flush, so no entities or snapshots are created
     @Override
+    @Transactional(readOnly = true)
     public List<TodoDTO> getAllTodos() {
-        return todoRepository.findAll()
-                .stream()
-                .map(TodoDTO::new)
-                .toList();
+        return writeBehind.overlay(readCache.getAll(todoRepository::findAllProjected));
     }
 
+    // An in-memory counter; SUPPORTS keeps conditional GETs from checking out a connection
     @Override
-    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getTodosVersion() {
+        return readCache.version();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoDTO getTodo(Long id) {
+        return writeBehind.overlay(readCache.get(id, () -> todoRepository.findProjectedById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TodoDTO> getTodosAfter(Long after, int limit) {
+        return writeBehind.overlay(todoRepository.findProjectedAfter(after == null ? 0L : after, Limit.of(limit)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TodoDTO> getArchivedTodosAfter(Long after, int limit) {
+        if (archiveRepository == null) {
+            return List.of();
+        }
+        return archiveRepository.findProjectedAfter(after == null ? 0L : after, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoDTO getArchivedTodo(Long id) {
+        return Optional.ofNullable(archiveRepository)
+                .flatMap(archive -> archive.findProjectedById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Archived todo not found with id: " + id));
+    }
+
+    // SUPPORTS so the in-memory index never checks out a connection; the query path
+    // runs in the repository's own read-only transaction
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<TodoDTO> search(String query, boolean prefix, Long after, int limit) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        long cursor = after == null ? 0L : after;
+        if (titleIndex.isReady()) {
+            return writeBehind.overlay(titleIndex.search(needle, prefix, cursor, limit));
+        }
+        String pattern = (prefix ? "" : "%") + escapeLike(needle) + "%";
+        return writeBehind.overlay(todoRepository.searchByTitle(pattern, cursor, limit));
+    }
+
+    // Served from memory; SUPPORTS keeps the call from opening a transaction
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TodoStatsDTO getStats() {
+        return stats.get();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TodoChangesDTO getChangesSince(long since) {
+        if (since > 0 && since < todoRepository.findMinChangeToken()) {
+            throw new ChangeTokenExpiredException(since);
+        }
+        // Writes still in flight sit at or above the horizon and show up in a later window
+        long until = Math.max(since, todoRepository.findChangeHorizon());
+        List<TodoDTO> upserts = writeBehind.overlay(todoRepository.findProjectedChanged(since, until));
+        List<Long> deleted = since > 0 ? todoRepository.findDeletedIds(since, until) : List.of();
+        return new TodoChangesDTO(upserts, deleted, until);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamTodos(Consumer<TodoDTO> consumer) {
+        try (Stream<TodoDTO> todos = todoRepository.streamAllProjected()) {
+            todos.map(writeBehind::overlay).forEach(consumer);
+        }
+    }
+
+    // SUPPORTS so a caller waiting on group commit does not hold a pooled connection;
+    // the single-row path still commits in the repository's own transaction
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Todo create(String title) {
         logger.info("Creating new todo with title: {}", title);
-        Todo todo = new Todo(title);
-        return todoRepository.save(todo);
+        // Both paths commit before the delta reaches the counters
+        stats.beginWrite();
+        try {
+            Todo todo = groupCommitWriter.isEnabled()
+                    ? awaitGroupCommit(title)
+                    : todoRepository.save(new Todo(title));
+            readCache.invalidate(todo.getId());
+            stats.add(1, 0);
+            events.publishEvent(TodoEventDTO.created(new TodoDTO(todo)));
+            return todo;
+        } finally {
+            stats.endWrite();
+        }
     }
 
+    // Bounded, so a request does not hang on a writer that stalled or stopped. A timed out create
+    // is withdrawn so it never commits behind the caller's back; one already being committed is
+    // waited for, since its outcome is about to be known
+    private Todo awaitGroupCommit(String title) {
+        CompletableFuture<Todo> pending = groupCommitWriter.submit(title);
+        try {
+            try {
+                return pending.get(groupCommitWriter.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (pending.cancel(false)) {
+                    throw new QueryTimeoutException("Group commit did not complete within "
+                            + groupCommitWriter.getTimeoutMillis() + " ms", e);
+                }
+                return pending.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Group commit failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<Todo> createAll(List<String> titles) {
+        logger.info("Creating {} todos in batches of {}", titles.size(), batchSize);
+        List<Todo> todos = titles.stream()
+                .map(Todo::new)
+                .toList();
+        List<Todo> created = todoRepository.insertAll(todos, batchSize);
+        readCache.invalidateAll();
+        stats.add(created.size(), 0);
+        events.publishEvent(TodoEventDTO.resync());
+        return created;
+    }
+
+    // One conditional statement resolves the update, a not-found or a version mismatch, so
+    // READ_COMMITTED is enough; only lock timeouts and deadlocks are worth retrying.
     @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     @Retryable(
-            value = {ObjectOptimisticLockingFailureException.class},
+            retryFor = {PessimisticLockingFailureException.class},
             maxAttempts = 3,
-            backoff = @Backoff(delay = 50)
+            backoff = @Backoff(delay = 50),
+            listeners = {"todoRetryListener"}
     )
     public void updateCompleted(Long id, Boolean completed) {
-        logger.info("Updating todo {} completed status to: {}", id, completed);
+        if (writeBehind.isEnabled()) {
+            // Still answers 404 for unknown ids; the existence check is normally a cache hit
+            TodoDTO todo = getTodo(id);
+            writeBehind.put(id, completed);
+            readCache.invalidateCollection();
+            stats.add(0, completedDelta(todo.isCompleted(), completed));
+            events.publishEvent(TodoEventDTO.updated(
+                    new TodoDTO(todo.getId(), todo.getTitle(), completed, todo.getVersion())));
+            return;
+        }
+        updateCompleted(id, completed, null);
+    }
 
-        // Try optimistic update first
-        int updated = todoRepository.updateCompleted(id, completed);
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Retryable(
+            retryFor = {PessimisticLockingFailureException.class},
+            maxAttempts = 3,
+            backoff = @Backoff(delay = 50),
+            listeners = {"todoRetryListener"}
+    )
+    public long updateCompleted(Long id, Boolean completed, Long expectedVersion) {
+        logger.info("Updating todo {} completed status to: {}", id, completed);
+        // A direct update supersedes any buffered toggle for the same todo, once it commits
+        writeBehind.holdUntilCompletion(id);
 
-        if (updated == 0) {
-            // If optimistic update failed, use pessimistic locking
-            Todo todo = todoRepository.findByIdWithLock(id)
-                    .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
-            todo.setCompleted(completed);
-            todoRepository.save(todo);
+        CompletionUpdateResult result = todoRepository.updateCompleted(id, completed, expectedVersion)
+                .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
+        if (!result.isUpdated()) {
+            versionConflicts.increment();
+            throw new ObjectOptimisticLockingFailureException(Todo.class, id);
         }
+        readCache.invalidate(id);
+        stats.add(0, completedDelta(result.getPreviousCompleted(), completed));
+        events.publishEvent(TodoEventDTO.updated(new TodoDTO(id, result.getTitle(), completed, result.getNewVersion())));
+        return result.getNewVersion();
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public void delete(Long id) {
         logger.info("Deleting todo with id: {}", id);
-        if (!todoRepository.existsById(id)) {
-            throw new EntityNotFoundException("Todo not found with id: " + id);
+        writeBehind.holdUntilCompletion(id);
+        // A single DELETE; the returned row doubles as the existence check
+        boolean wasCompleted = todoRepository.deleteReturningCompleted(id)
+                .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
+        readCache.invalidate(id);
+        stats.add(-1, wasCompleted ? -1 : 0);
+        events.publishEvent(TodoEventDTO.deleted(id));
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Map<Long, BulkOutcome> updateCompleted(List<Long> ids, boolean completed) {
+        logger.info("Updating completed status of {} todos to: {}", ids.size(), completed);
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        writeBehind.holdUntilCompletion(distinctIds);
+        List<CompletionState> previous = inChunks(distinctIds,
+                chunk -> todoRepository.updateCompletedReturningPrevious(chunk, completed));
+        readCache.invalidateAll();
+        stats.add(0, previous.stream().mapToLong(row -> completedDelta(row.getCompleted(), completed)).sum());
+        events.publishEvent(TodoEventDTO.resync());
+        return outcomes(distinctIds, previous, BulkOutcome.UPDATED);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Map<Long, BulkOutcome> deleteAll(List<Long> ids) {
+        logger.info("Deleting {} todos", ids.size());
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        writeBehind.holdUntilCompletion(distinctIds);
+        List<CompletionState> deleted = inChunks(distinctIds, todoRepository::deleteReturningState);
+        readCache.invalidateAll();
+        stats.add(-deleted.size(), -deleted.stream().filter(CompletionState::getCompleted).count());
+        events.publishEvent(TodoEventDTO.resync());
+        return outcomes(distinctIds, deleted, BulkOutcome.DELETED);
+    }
+
+    // SUPPORTS so the flush, which commits on a connection of its own, runs before this call
+    // holds one; flushing from inside the transaction would need two connections per caller
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int deleteAllCompleted() {
+        // Buffered toggles must reach the table first so "completed" means what clients see
+        writeBehind.flush();
+        return readCommitted.execute(status -> {
+            int deleted = todoRepository.deleteCompleted();
+            logger.info("Deleted {} completed todos", deleted);
+            readCache.invalidateAll();
+            stats.add(-deleted, -deleted);
+            events.publishEvent(TodoEventDTO.resync());
+            return deleted;
+        });
+    }
+
+    private static List<CompletionState> inChunks(List<Long> ids,
+                                                  Function<List<Long>, List<CompletionState>> statement) {
+        List<CompletionState> affected = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            affected.addAll(statement.apply(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()))));
         }
-        todoRepository.deleteById(id);
+        return affected;
     }
 
-    // Asynchronous methods for concurrent operations
+    // Asynchronous methods for concurrent operations.
+    // @Async dispatches once onto the taskExecutor and the transaction is opened on that
+    // same thread, so the work itself runs inline instead of hopping to the common pool.
     @Override
     @Async
-    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CompletableFuture<Todo> createAsync(String title) {
-        return CompletableFuture.supplyAsync(() -> create(title));
+        return CompletableFuture.completedFuture(create(title));
     }
 
     @Override
     @Async
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public CompletableFuture<Void> updateCompletedAsync(Long id, Boolean completed) {
-        return CompletableFuture.runAsync(() -> updateCompleted(id, completed));
+        updateCompleted(id, completed);
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
     @Async
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public CompletableFuture<Void> deleteAsync(Long id) {
-        return CompletableFuture.runAsync(() -> delete(id));
+        delete(id);
+        return CompletableFuture.completedFuture(null);
     }
 }
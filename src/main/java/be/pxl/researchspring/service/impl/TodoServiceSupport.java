@@ -0,0 +1,36 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.api.response.BulkOutcome;
+import be.pxl.researchspring.repository.CompletionState;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Rules shared by TodoServiceImpl and ReactiveTodoServiceImpl
+final class TodoServiceSupport {
+    static final int BULK_CHUNK_SIZE = 1000;
+
+    private TodoServiceSupport() {
+    }
+
+    static Map<Long, BulkOutcome> outcomes(List<Long> ids, List<CompletionState> affected, BulkOutcome hit) {
+        Set<Long> affectedIds = new HashSet<>();
+        affected.forEach(row -> affectedIds.add(row.getId()));
+        Map<Long, BulkOutcome> outcomes = new LinkedHashMap<>();
+        for (Long id : ids) {
+            outcomes.put(id, affectedIds.contains(id) ? hit : BulkOutcome.NOT_FOUND);
+        }
+        return outcomes;
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    static long completedDelta(boolean previous, boolean completed) {
+        return previous == completed ? 0 : completed ? 1 : -1;
+    }
+}
@@ -0,0 +1,140 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.api.response.TodoStatsDTO;
+import be.pxl.researchspring.repository.TodoCounts;
+import be.pxl.researchspring.repository.TodoStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Total and completed todo counts, adjusted by every write after it commits. The counters are
+ * striped so concurrent writers do not contend on them. They only see this node's writes, so a
+ * periodic reconciliation resets them to the database counts, which also covers restarts and
+ * writes made by other nodes.
+ */
+@Component
+public class TodoStatsCounter {
+    private static final Logger logger = LoggerFactory.getLogger(TodoStatsCounter.class);
+
+    private final TodoStore todoRepository;
+    private final CompletionWriteBehindBuffer writeBehind;
+    private final int maxSkippedRuns;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    // Only grows; an unchanged sum across a reconciliation query means no local write landed meanwhile
+    private final LongAdder updates = new LongAdder();
+    // Writes that may have committed but whose deltas are not applied yet
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LongAdder drift = new LongAdder();
+    private final AtomicInteger skippedInARow = new AtomicInteger();
+    private final LongAdder skippedRuns = new LongAdder();
+
+    public TodoStatsCounter(TodoStore todoRepository,
+                            CompletionWriteBehindBuffer writeBehind,
+                            @Value("${todo.stats.max-skipped-reconciles:5}") int maxSkippedRuns) {
+        this.todoRepository = todoRepository;
+        this.writeBehind = writeBehind;
+        this.maxSkippedRuns = maxSkippedRuns;
+    }
+
+    public TodoStatsDTO get() {
+        return new TodoStatsDTO(total.sum(), completed.sum());
+    }
+
+    public void add(long totalDelta, long completedDelta) {
+        if (totalDelta == 0 && completedDelta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(totalDelta, completedDelta);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } else {
+            apply(totalDelta, completedDelta);
+        }
+    }
+
+    /**
+     * Marks a write that commits before its delta is known, such as one in its own transaction
+     * or on the reactive stack, as in flight until {@link #endWrite()}. Call it before the write
+     * and end it after {@link #add}.
+     */
+    public void beginWrite() {
+        inFlight.incrementAndGet();
+    }
+
+    public void endWrite() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Replaces the counts with the database's. A run is skipped while write-behind toggles are
+     * pending, because the table does not show them yet, or if a local write was in flight or
+     * applied while counting: the count may or may not include it, so either the table or the
+     * counters would be off by its delta. Steady traffic could skip every run, so after
+     * {@code maxSkippedRuns} in a row the next one resets the counts anyway; a delta it gets
+     * wrong is corrected by the next settled run.
+     */
+    @Scheduled(fixedDelayString = "${todo.stats.reconcile-interval-ms}")
+    // Not read-only: counted on a lagging replica, correct counters would be moved backwards
+    @Transactional
+    public void reconcile() {
+        long before = updates.sum();
+        TodoCounts counts = todoRepository.countTodos();
+        long totalNow = total.sum();
+        long completedNow = completed.sum();
+        // Checked after reading the counters; apply() bumps updates first, so no delta slips in between
+        boolean unsettled = writeBehind.hasPending() || inFlight.get() != 0 || updates.sum() != before;
+        if (unsettled && skippedInARow.incrementAndGet() <= maxSkippedRuns) {
+            skippedRuns.increment();
+            return;
+        }
+        skippedInARow.set(0);
+        long totalDrift = counts.getTotal() - totalNow;
+        long completedDrift = counts.getCompleted() - completedNow;
+        if (totalDrift != 0 || completedDrift != 0) {
+            total.add(totalDrift);
+            completed.add(completedDrift);
+            drift.add(Math.abs(totalDrift) + Math.abs(completedDrift));
+            logger.debug("Reconciled todo counters: total {} completed {}", totalDrift, completedDrift);
+        }
+    }
+
+    public int getMaxSkippedRuns() {
+        return maxSkippedRuns;
+    }
+
+    public long getSkippedRuns() {
+        return skippedRuns.sum();
+    }
+
+    public long getDrift() {
+        return drift.sum();
+    }
+
+    private void apply(long totalDelta, long completedDelta) {
+        updates.increment();
+        total.add(totalDelta);
+        completed.add(completedDelta);
+    }
+}
@@ -0,0 +1,240 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.api.response.TodoChangesDTO;
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import be.pxl.researchspring.service.ChangeTokenExpiredException;
+import be.pxl.researchspring.service.TodoService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process trigram index over todo titles, as an alternative to the Postgres indexes.
+ * Every lower-cased title is split into trigrams and each trigram keeps the ids containing it
+ * in id order. A search walks the shortest posting list of the query's trigrams from the
+ * cursor onward and verifies candidates against the title, so pages come out in id order
+ * without sorting. Queries shorter than a trigram scan the titles directly.
+ * <p>
+ * The index follows the delta sync feed, so it also picks up other nodes' writes, and refreshes
+ * right after local commits. It holds every todo in memory, which suits tables of up to a few
+ * million rows.
+ */
+@Component
+public class TodoTitleIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TodoTitleIndex.class);
+    private static final int TRIGRAM = 3;
+
+    private final ObjectProvider<TodoService> todoService;
+    private final boolean enabled;
+    private final long refreshMillis;
+
+    // Replaced as a whole when the index is rebuilt, so searches never see it half cleared
+    private volatile Index index = new Index();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private ScheduledExecutorService refresher;
+    private volatile boolean ready;
+    // Guarded by refresh()
+    private long token;
+
+    public TodoTitleIndex(ObjectProvider<TodoService> todoService,
+                          @Value("${todo.search.in-memory.enabled}") boolean enabled,
+                          @Value("${todo.search.in-memory.refresh-ms}") long refreshMillis) {
+        this.todoService = todoService;
+        this.enabled = enabled;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TodoTitleIndex");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // Searches fall back to the database until the first full load has finished
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.entries.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoEvent(TodoEventDTO event) {
+        if (refresher != null && refreshQueued.compareAndSet(false, true)) {
+            try {
+                refresher.execute(this::refreshQuietly);
+            } catch (RejectedExecutionException e) {
+                refreshQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} todos with an id above {@code after} whose lower-cased title
+     * starts with, or contains, {@code needle}, which must already be lower-cased.
+     */
+    public List<TodoDTO> search(String needle, boolean prefix, long after, int limit) {
+        Index index = this.index;
+        List<TodoDTO> results = new ArrayList<>(Math.min(limit, 128));
+        if (needle.length() < TRIGRAM) {
+            for (Entry entry : index.entries.tailMap(after, false).values()) {
+                if (entry.matches(needle, prefix) && add(results, entry, limit)) {
+                    break;
+                }
+            }
+            return results;
+        }
+        Posting shortest = null;
+        for (int i = 0; i + TRIGRAM <= needle.length(); i++) {
+            Posting posting = index.postings.get(trigram(needle, i));
+            if (posting == null || posting.size == 0) {
+                return results;
+            }
+            if (shortest == null || posting.size < shortest.size) {
+                shortest = posting;
+            }
+        }
+        for (Long id : shortest.ids.tailSet(after, false)) {
+            Entry entry = index.entries.get(id);
+            if (entry != null && entry.matches(needle, prefix) && add(results, entry, limit)) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Brings the index up to date with everything committed so far
+    public synchronized void refresh() {
+        Index target = index;
+        TodoChangesDTO changes;
+        try {
+            changes = todoService.getObject().getChangesSince(token);
+        } catch (ChangeTokenExpiredException e) {
+            logger.info("Change token expired, rebuilding the title index");
+            changes = todoService.getObject().getChangesSince(0);
+            // Searches keep using the old index until the new one is complete
+            target = new Index();
+        }
+        changes.getDeleted().forEach(target::remove);
+        changes.getUpserts().forEach(target::put);
+        index = target;
+        token = changes.getToken();
+        if (!ready) {
+            ready = true;
+            logger.info("Title index loaded with {} todos", target.entries.size());
+        }
+    }
+
+    private void refreshQuietly() {
+        refreshQueued.set(false);
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Title index refresh failed", e);
+        }
+    }
+
+    private static boolean add(List<TodoDTO> results, Entry entry, int limit) {
+        results.add(entry.todo());
+        return results.size() >= limit;
+    }
+
+    private static long trigram(String key, int start) {
+        return ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+    }
+
+    // Written under refresh() only
+    private static final class Index {
+        private final ConcurrentSkipListMap<Long, Entry> entries = new ConcurrentSkipListMap<>();
+        private final Map<Long, Posting> postings = new ConcurrentHashMap<>();
+
+        void put(TodoDTO todo) {
+            Entry entry = new Entry(todo, todo.getTitle() == null ? "" : todo.getTitle().toLowerCase(Locale.ROOT));
+            Entry previous = entries.put(todo.getId(), entry);
+            if (previous != null && previous.key().equals(entry.key())) {
+                return;
+            }
+            if (previous != null) {
+                unindex(todo.getId(), previous.key());
+            }
+            for (int i = 0; i + TRIGRAM <= entry.key().length(); i++) {
+                postings.computeIfAbsent(trigram(entry.key(), i), t -> new Posting()).add(todo.getId());
+            }
+        }
+
+        void remove(Long id) {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unindex(id, previous.key());
+            }
+        }
+
+        private void unindex(Long id, String key) {
+            for (int i = 0; i + TRIGRAM <= key.length(); i++) {
+                Posting posting = postings.get(trigram(key, i));
+                if (posting != null) {
+                    posting.remove(id);
+                }
+            }
+        }
+    }
+
+    private record Entry(TodoDTO todo, String key) {
+        boolean matches(String needle, boolean prefix) {
+            return prefix ? key.startsWith(needle) : key.contains(needle);
+        }
+    }
+
+    // Written under refresh() only; the size is read to pick the most selective trigram
+    private static final class Posting {
+        private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+        private volatile int size;
+
+        void add(Long id) {
+            if (ids.add(id)) {
+                size++;
+            }
+        }
+
+        void remove(Long id) {
+            if (ids.remove(id)) {
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package be.pxl.researchspring.service.impl;
+
+import be.pxl.researchspring.repository.TodoStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Keeps the delete tombstones used by delta sync bounded. Clients whose token predates the
+ * pruned tombstones get told to resync instead of silently missing deletes.
+ */
+@Component
+public class TombstonePruner {
+    private static final Logger logger = LoggerFactory.getLogger(TombstonePruner.class);
+
+    private final TodoStore todoRepository;
+    private final Duration retention;
+
+    public TombstonePruner(TodoStore todoRepository,
+                           @Value("${todo.changes.tombstone-retention}") Duration retention) {
+        this.todoRepository = todoRepository;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.changes.prune-interval-ms}", initialDelayString = "${todo.changes.prune-interval-ms}")
+    @Transactional
+    public void prune() {
+        long pruned = todoRepository.pruneTombstones(OffsetDateTime.now().minus(retention));
+        if (pruned > 0) {
+            logger.info("Pruned {} todo tombstones older than {}", pruned, retention);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- Hot/cold tiering: completed todos older than todo.archive.min-age move to todos_archive
+-- (created by Hibernate from ArchivedTodo). The live table records when each todo was
+-- completed; a partial index keeps finding the next batch cheap however few rows qualify.
+-- The script runs after Hibernate has created the tables and must stay idempotent.
+
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS completed_at timestamptz;
+
+CREATE INDEX IF NOT EXISTS todos_completed_at_idx ON todos (completed_at) WHERE completed;
+
+CREATE OR REPLACE FUNCTION todos_stamp_completed() RETURNS trigger AS $$
+BEGIN
+    IF NOT NEW.completed THEN
+        NEW.completed_at := NULL;
+    ELSIF TG_OP = 'INSERT' OR NOT OLD.completed OR OLD.completed_at IS NULL THEN
+        NEW.completed_at := now();
+    ELSE
+        NEW.completed_at := OLD.completed_at;
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS todos_stamp_completed ON todos;
+CREATE TRIGGER todos_stamp_completed BEFORE INSERT OR UPDATE OF completed ON todos
+    FOR EACH ROW EXECUTE FUNCTION todos_stamp_completed();
+
+-- Todos completed before the column existed start aging now
+UPDATE todos SET completed_at = now() WHERE completed AND completed_at IS NULL;
@@ -0,0 +1,58 @@
+-- Change tracking for delta sync (GET /todos/changes).
+-- Every insert or update stamps the row with the id of the writing transaction, and every
+-- delete leaves a tombstone stamped the same way. Transaction ids only grow, and everything
+-- below the current snapshot's xmin has finished, so a range of them is a stable window.
+-- The script runs after Hibernate has created the tables and must stay idempotent.
+
+CREATE OR REPLACE FUNCTION todo_change_seq() RETURNS bigint AS $$
+    SELECT pg_current_xact_id()::text::bigint
+$$ LANGUAGE sql VOLATILE;
+
+CREATE OR REPLACE FUNCTION todo_change_horizon() RETURNS bigint AS $$
+    SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+$$ LANGUAGE sql VOLATILE;
+
+CREATE TABLE IF NOT EXISTS todo_tombstones (
+    id         bigint PRIMARY KEY,
+    change_seq bigint NOT NULL,
+    deleted_at timestamptz NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS todo_tombstones_change_seq_idx ON todo_tombstones (change_seq);
+
+-- Single row holding the oldest token that still sees every tombstone
+CREATE TABLE IF NOT EXISTS todo_change_horizon (
+    id        int PRIMARY KEY CHECK (id = 1),
+    min_token bigint NOT NULL
+);
+
+INSERT INTO todo_change_horizon (id, min_token) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS change_seq bigint;
+
+CREATE INDEX IF NOT EXISTS todos_change_seq_idx ON todos (change_seq);
+
+CREATE OR REPLACE FUNCTION todos_stamp_change() RETURNS trigger AS $$
+BEGIN
+    NEW.change_seq := todo_change_seq();
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION todos_record_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO todo_tombstones (id, change_seq) VALUES (OLD.id, todo_change_seq())
+    ON CONFLICT (id) DO UPDATE SET change_seq = EXCLUDED.change_seq, deleted_at = now();
+    RETURN OLD;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS todos_stamp_change ON todos;
+CREATE TRIGGER todos_stamp_change BEFORE INSERT OR UPDATE ON todos
+    FOR EACH ROW EXECUTE FUNCTION todos_stamp_change();
+
+DROP TRIGGER IF EXISTS todos_record_tombstone ON todos;
+CREATE TRIGGER todos_record_tombstone AFTER DELETE ON todos
+    FOR EACH ROW EXECUTE FUNCTION todos_record_tombstone();
+
+UPDATE todos SET change_seq = todo_change_seq() WHERE change_seq IS NULL;
@@ -0,0 +1,10 @@
+-- Indexes for GET /todos/search, which matches lower(title) case-insensitively.
+-- The trigram index serves substring patterns ('%q%'); the pattern_ops btree serves
+-- prefixes ('q%') with a plain range scan. Both are built on the same expression the
+-- search query uses, so the planner can pick either.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS todos_title_trgm_idx ON todos USING gin (lower(title) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS todos_title_prefix_idx ON todos (lower(title) text_pattern_ops);
@@ -0,0 +1,36 @@
+package be.pxl.researchspring.perf;
+
+import be.pxl.researchspring.ResearchSpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the real application against {@link PerfDatabase} with logging and SQL echo turned down,
+ * so measurements are not dominated by console output.
+ */
+public final class PerfApplication {
+    private PerfApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, Map<String, Object> properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.datasource.url", PerfDatabase.jdbcUrl());
+        defaults.put("spring.datasource.username", PerfDatabase.username());
+        defaults.put("spring.datasource.password", PerfDatabase.password());
+        defaults.put("spring.jpa.show-sql", "false");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("logging.level.be.pxl.researchspring", "WARN");
+        defaults.putAll(properties);
+        // Passed as command line arguments so they take precedence over application.properties
+        String[] args = defaults.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ResearchSpringApplication.class)
+                .web(webApplicationType)
+                .run(args);
+    }
+}
@@ -0,0 +1,51 @@
+package be.pxl.researchspring.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Database for benchmarks and load runs. Uses the Postgres given by {@code -Dperf.jdbc.url}
+ * (e.g. the docker-compose one) and otherwise starts an embedded Postgres so runs work offline.
+ */
+public final class PerfDatabase {
+    private static EmbeddedPostgres embedded;
+
+    private PerfDatabase() {
+    }
+
+    public static synchronized String jdbcUrl() {
+        String url = System.getProperty("perf.jdbc.url");
+        if (url != null) {
+            return url;
+        }
+        if (embedded == null) {
+            try {
+                embedded = EmbeddedPostgres.builder()
+                        .setServerConfig("max_connections", "300")
+                        .start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded Postgres", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(PerfDatabase::close, "PerfDatabaseShutdown"));
+        }
+        return embedded.getJdbcUrl("postgres", "postgres");
+    }
+
+    public static String username() {
+        return System.getProperty("perf.jdbc.username", "postgres");
+    }
+
+    public static String password() {
+        return System.getProperty("perf.jdbc.password", "postgres");
+    }
+
+    private static synchronized void close() {
+        try {
+            embedded.close();
+        } catch (IOException e) {
+            // Best effort on shutdown
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package be.pxl.researchspring.perf.benchmark;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.perf.PerfApplication;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.TodoService;
+import be.pxl.researchspring.service.impl.TodoTitleIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Title search: the trigram and prefix indexes on Postgres and the in-process index, against
+ * the naive unindexed {@code title ILIKE '%q%'} scan they replace.
+ * Run with: ./mvnw -Pperf test-compile exec:exec -Djmh.args="TodoSearchBenchmark -p seededTodos=1000000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class TodoSearchBenchmark {
+    private static final String[] WORDS = {
+            "groceries", "invoice", "dentist", "laundry", "birthday", "report", "garden", "meeting",
+            "passport", "insurance", "recipe", "workout", "taxes", "plumber", "holiday", "newsletter"
+    };
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000"})
+    private int seededTodos;
+
+    private ConfigurableApplicationContext context;
+    private TodoRepository todoRepository;
+    private TodoTitleIndex titleIndex;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PerfApplication.start(WebApplicationType.NONE, Map.of("todo.search.in-memory.enabled", "true"));
+        todoRepository = context.getBean(TodoRepository.class);
+        titleIndex = context.getBean(TodoTitleIndex.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        todoRepository.deleteAllInBatch();
+        TodoService todoService = context.getBean(TodoService.class);
+        for (int from = 0; from < seededTodos; from += 10_000) {
+            todoService.createAll(IntStream.range(from, Math.min(from + 10_000, seededTodos))
+                    .mapToObj(i -> WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " #" + i)
+                    .toList());
+        }
+        jdbcTemplate.execute("ANALYZE todos");
+        titleIndex.refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TodoDTO> indexedSubstring() {
+        return todoRepository.searchByTitle("%" + randomNeedle() + "%", 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<TodoDTO> indexedPrefix() {
+        return todoRepository.searchByTitle(randomWord() + " " + randomWord() + "%", 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<TodoDTO> inMemorySubstring() {
+        return titleIndex.search(randomNeedle(), false, 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<TodoDTO> inMemoryPrefix() {
+        return titleIndex.search(randomWord() + " " + randomWord(), true, 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Long> naiveLikeScan() {
+        return jdbcTemplate.queryForList("SELECT id FROM todos WHERE title ILIKE ? ORDER BY id LIMIT ?",
+                Long.class, "%" + randomNeedle() + "%", PAGE_SIZE);
+    }
+
+    // A selective needle: the number suffix matches only a handful of rows
+    private static String randomNeedle() {
+        return "#" + ThreadLocalRandom.current().nextInt(1000, 9999);
+    }
+
+    private static String randomWord() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+}
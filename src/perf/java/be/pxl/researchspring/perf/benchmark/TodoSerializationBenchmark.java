@@ -0,0 +1,134 @@
+package be.pxl.researchspring.perf.benchmark;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Entity to DTO mapping and Jackson serialization of the GET /todos payload, without a database,
+ * in each wire format the API negotiates. Payload sizes, raw and gzipped as the server would
+ * send them, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoSerializationBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Todo> todos;
+    private List<TodoDTO> dtos;
+    private ObjectWriter writer;
+    private ObjectWriter smileWriter;
+    private ObjectWriter cborWriter;
+    private ObjectReader reader;
+    private ObjectReader smileReader;
+    private ObjectReader cborReader;
+    private byte[] json;
+    private byte[] smile;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() {
+        todos = IntStream.range(0, size)
+                .mapToObj(i -> {
+                    Todo todo = new Todo("Serialized_Todo_" + i);
+                    todo.setId((long) i);
+                    todo.setVersion(0L);
+                    todo.setCompleted(i % 3 == 0);
+                    return todo;
+                })
+                .toList();
+        dtos = todos.stream()
+                .map(TodoDTO::new)
+                .toList();
+        writer = new ObjectMapper().writerFor(TodoDTO[].class);
+        smileWriter = new ObjectMapper(new SmileFactory()).writerFor(TodoDTO[].class);
+        cborWriter = new ObjectMapper(new CBORFactory()).writerFor(TodoDTO[].class);
+        reader = new ObjectMapper().readerFor(TodoDTO[].class);
+        smileReader = new ObjectMapper(new SmileFactory()).readerFor(TodoDTO[].class);
+        cborReader = new ObjectMapper(new CBORFactory()).readerFor(TodoDTO[].class);
+        try {
+            json = serializeJson();
+            smile = serializeSmile();
+            cbor = serializeCbor();
+            System.out.printf("%nPayload of %d todos: json %d B (gzip %d B), smile %d B (gzip %d B), cbor %d B (gzip %d B)%n",
+                    size, json.length, gzip(json).length, smile.length, gzip(smile).length, cbor.length, gzip(cbor).length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    public List<TodoDTO> mapToDto() {
+        return todos.stream()
+                .map(TodoDTO::new)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws JsonProcessingException {
+        return writer.writeValueAsBytes(dtos.toArray(TodoDTO[]::new));
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws JsonProcessingException {
+        return smileWriter.writeValueAsBytes(dtos.toArray(TodoDTO[]::new));
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws JsonProcessingException {
+        return cborWriter.writeValueAsBytes(dtos.toArray(TodoDTO[]::new));
+    }
+
+    // What a client pays for a compressed response on top of serializing it
+    @Benchmark
+    public byte[] serializeJsonGzip() throws IOException {
+        return gzip(serializeJson());
+    }
+
+    @Benchmark
+    public byte[] serializeSmileGzip() throws IOException {
+        return gzip(serializeSmile());
+    }
+
+    @Benchmark
+    public TodoDTO[] deserializeJson() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public TodoDTO[] deserializeSmile() throws IOException {
+        return smileReader.readValue(smile);
+    }
+
+    @Benchmark
+    public TodoDTO[] deserializeCbor() throws IOException {
+        return cborReader.readValue(cbor);
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(payload);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,96 @@
+package be.pxl.researchspring.perf.benchmark;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.perf.PerfApplication;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.TodoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Service-level hot paths against a real Postgres, including the async variants.
+ * Run with: ./mvnw -Pperf test-compile exec:exec -Djmh.args="TodoServiceBenchmark -rf json -rff target/jmh-result.json"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class TodoServiceBenchmark {
+    @Param({"1000"})
+    private int seededTodos;
+
+    private ConfigurableApplicationContext context;
+    private TodoService todoService;
+    private TodoRepository todoRepository;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PerfApplication.start(WebApplicationType.NONE, Map.of());
+        todoService = context.getBean(TodoService.class);
+        todoRepository = context.getBean(TodoRepository.class);
+        todoRepository.deleteAllInBatch();
+        ids = todoService.createAll(IntStream.range(0, seededTodos)
+                        .mapToObj(i -> "Seeded_Todo_" + i)
+                        .toList())
+                .stream()
+                .map(Todo::getId)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Todo create() {
+        return todoService.create("Bench_Todo");
+    }
+
+    @Benchmark
+    public void updateCompleted() {
+        todoService.updateCompleted(randomId(), ThreadLocalRandom.current().nextBoolean());
+    }
+
+    // The query behind getAllTodos(), which the service answers from its cache between writes
+    @Benchmark
+    public List<TodoDTO> findAllProjected() {
+        return todoRepository.findAllProjected();
+    }
+
+    @Benchmark
+    public List<TodoDTO> getAllTodosCached() {
+        return todoService.getAllTodos();
+    }
+
+    @Benchmark
+    public List<TodoDTO> getTodosPage() {
+        return todoService.getTodosAfter(randomId(), 100);
+    }
+
+    @Benchmark
+    public Todo createAsync() {
+        return todoService.createAsync("Bench_Async_Todo").join();
+    }
+
+    @Benchmark
+    public void updateCompletedAsync() {
+        todoService.updateCompletedAsync(randomId(), ThreadLocalRandom.current().nextBoolean()).join();
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,38 @@
+package be.pxl.researchspring.perf.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ids of todos known to exist, so reads, toggles and deletes target real rows.
+ */
+class IdPool {
+    private final List<Long> ids = new ArrayList<>();
+
+    synchronized void add(long id) {
+        ids.add(id);
+    }
+
+    synchronized Long random() {
+        return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    /**
+     * Removes and returns a random id (swap-remove, O(1)).
+     */
+    synchronized Long take() {
+        if (ids.isEmpty()) {
+            return null;
+        }
+        int index = ThreadLocalRandom.current().nextInt(ids.size());
+        Long id = ids.get(index);
+        ids.set(index, ids.getLast());
+        ids.removeLast();
+        return id;
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+}
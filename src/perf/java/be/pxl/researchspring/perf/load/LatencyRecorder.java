@@ -0,0 +1,80 @@
+package be.pxl.researchspring.perf.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms in microseconds.
+ * <p>
+ * Response time is measured from the moment a request was <em>supposed</em> to be sent (its slot in
+ * the open-loop schedule or the closed-loop pacing), so time spent queued behind a stalled system is
+ * counted instead of being silently omitted (coordinated omission). Service time is measured from the
+ * moment the request was actually sent.
+ */
+class LatencyRecorder {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Operation, Histogram> responseTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> serviceTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Outcome, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+
+    enum Outcome {OK, NOT_FOUND, REJECTED, ERROR, SKIPPED}
+
+    LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            responseTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            serviceTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            Map<Outcome, LongAdder> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, new LongAdder());
+            }
+            outcomes.put(operation, counters);
+        }
+    }
+
+    void record(Operation operation, long intendedStartNanos, long actualStartNanos, long endNanos, int status) {
+        Outcome outcome = outcome(status);
+        outcomes.get(operation).get(outcome).increment();
+        if (outcome == Outcome.SKIPPED) {
+            return;
+        }
+        long responseMicros = clamp(TimeUnit.NANOSECONDS.toMicros(endNanos - intendedStartNanos));
+        long serviceMicros = clamp(TimeUnit.NANOSECONDS.toMicros(endNanos - actualStartNanos));
+        responseTimes.get(operation).recordValue(responseMicros);
+        serviceTimes.get(operation).recordValue(serviceMicros);
+    }
+
+    Histogram responseTimes(Operation operation) {
+        return responseTimes.get(operation);
+    }
+
+    Histogram serviceTimes(Operation operation) {
+        return serviceTimes.get(operation);
+    }
+
+    long count(Operation operation, Outcome outcome) {
+        return outcomes.get(operation).get(outcome).sum();
+    }
+
+    private static Outcome outcome(int status) {
+        if (status == 0) {
+            return Outcome.SKIPPED;
+        }
+        if (status == 404) {
+            return Outcome.NOT_FOUND;
+        }
+        if (status == 429) {
+            return Outcome.REJECTED;
+        }
+        return status >= 200 && status < 400 ? Outcome.OK : Outcome.ERROR;
+    }
+
+    private static long clamp(long micros) {
+        return Math.min(Math.max(micros, 1), HIGHEST_TRACKABLE_MICROS);
+    }
+}
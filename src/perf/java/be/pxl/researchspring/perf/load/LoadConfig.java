@@ -0,0 +1,67 @@
+package be.pxl.researchspring.perf.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load run settings, given as {@code --key=value} arguments:
+ * <ul>
+ *     <li>{@code base-url}: target, e.g. http://localhost:8080; when absent the application is started in-process</li>
+ *     <li>{@code mode}: {@code open} (fixed arrival rate) or {@code closed} (fixed number of users)</li>
+ *     <li>{@code rate}: requests per second; the arrival rate in open mode, the pacing across all users in
+ *     closed mode (0 = as fast as possible, which cannot be corrected for coordinated omission)</li>
+ *     <li>{@code users}: concurrent users for the closed mode</li>
+ *     <li>{@code duration} / {@code ramp-up}: ISO-8601 or seconds, e.g. {@code 60} or {@code PT1M}</li>
+ *     <li>{@code mix}: operation weights, e.g. {@code create=20,read=50,list=10,toggle=15,delete=5}</li>
+ *     <li>{@code seed}: todos created before the run starts</li>
+ *     <li>{@code out}: report directory</li>
+ * </ul>
+ */
+record LoadConfig(String baseUrl,
+                  Mode mode,
+                  double rate,
+                  int users,
+                  Duration duration,
+                  Duration rampUp,
+                  Map<Operation, Integer> mix,
+                  int seed,
+                  String outputDirectory) {
+
+    enum Mode {OPEN, CLOSED}
+
+    static LoadConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadConfig(
+                values.get("base-url"),
+                Mode.valueOf(values.getOrDefault("mode", "open").toUpperCase()),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                parseDuration(values.getOrDefault("duration", "60")),
+                parseDuration(values.getOrDefault("ramp-up", "10")),
+                parseMix(values.getOrDefault("mix", "create=20,read=50,list=10,toggle=15,delete=5")),
+                Integer.parseInt(values.getOrDefault("seed", "1000")),
+                values.getOrDefault("out", "target/load-report"));
+    }
+
+    private static Duration parseDuration(String value) {
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,140 @@
+package be.pxl.researchspring.perf.load;
+
+import be.pxl.researchspring.perf.PerfApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the TodoController endpoints with a configurable operation mix, in open-loop (fixed arrival
+ * rate) or closed-loop (fixed users) mode, and writes a latency report. See {@link LoadConfig}.
+ * <p>
+ * Without {@code --base-url} the application is started in-process against {@code PerfDatabase}
+ * (the embedded Postgres, or {@code -Dperf.jdbc.url}).
+ */
+public class LoadGenerator {
+    private final LoadConfig config;
+    private final TodoClient client;
+    private final OperationMix mix;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final IdPool ids = new IdPool();
+
+    LoadGenerator(LoadConfig config, String baseUrl) {
+        this.config = config;
+        this.client = new TodoClient(baseUrl, ids);
+        this.mix = new OperationMix(config.mix());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = config.baseUrl();
+        if (baseUrl == null) {
+            context = PerfApplication.start(WebApplicationType.SERVLET, Map.of("server.port", "0"));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(config, baseUrl);
+            generator.seed();
+            double measuredSeconds = generator.run();
+            LoadReport report = new LoadReport(config, generator.recorder, measuredSeconds);
+            report.print(System.out);
+            Path directory = report.write();
+            System.out.println("\nReport written to " + directory.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    void seed() throws Exception {
+        for (int i = 0; i < config.seed(); i++) {
+            client.create("Seeded_Todo_" + i);
+        }
+    }
+
+    /**
+     * @return the length of the measured window (after ramp-up) in seconds
+     */
+    double run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + config.rampUp().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.mode() == LoadConfig.Mode.OPEN) {
+                runOpenLoop(workers, start, measureFrom, end);
+            } else {
+                runClosedLoop(workers, start, measureFrom, end);
+            }
+        }
+        return (end - measureFrom) / 1_000_000_000.0;
+    }
+
+    // Arrivals follow a schedule independent of how fast the server answers; the rate ramps up
+    // linearly during the ramp-up window
+    private void runOpenLoop(ExecutorService workers, long start, long measureFrom, long end) {
+        double rampNanos = Math.max(1, measureFrom - start);
+        long intendedStart = start;
+        while (intendedStart < end) {
+            long scheduled = intendedStart;
+            waitUntil(scheduled);
+            workers.execute(() -> execute(mix.next(), scheduled, scheduled >= measureFrom));
+            double currentRate = config.rate() * Math.min(1.0, Math.max(0.01, (scheduled - start) / rampNanos));
+            intendedStart += (long) (1_000_000_000.0 / currentRate);
+        }
+    }
+
+    // Each user sends its next request when the previous one is done, paced to rate / users when a
+    // rate is given; users start staggered over the ramp-up window
+    private void runClosedLoop(ExecutorService workers, long start, long measureFrom, long end) throws InterruptedException {
+        long rampStep = (measureFrom - start) / Math.max(1, config.users());
+        long pacingNanos = config.rate() > 0 ? (long) (config.users() * 1_000_000_000.0 / config.rate()) : 0;
+        List<Runnable> users = new ArrayList<>();
+        for (int user = 0; user < config.users(); user++) {
+            long userStart = start + user * rampStep;
+            users.add(() -> {
+                long intendedStart = userStart;
+                waitUntil(userStart);
+                while (intendedStart < end) {
+                    long now = System.nanoTime();
+                    long scheduled = pacingNanos > 0 ? intendedStart : now;
+                    execute(mix.next(), scheduled, scheduled >= measureFrom);
+                    intendedStart = (pacingNanos > 0 ? intendedStart + pacingNanos : System.nanoTime());
+                    waitUntil(intendedStart);
+                }
+            });
+        }
+        users.forEach(workers::execute);
+        workers.shutdown();
+        workers.awaitTermination(end - System.nanoTime() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+    }
+
+    private void execute(Operation operation, long intendedStart, boolean measured) {
+        long actualStart = System.nanoTime();
+        int status;
+        try {
+            status = client.execute(operation);
+        } catch (Exception e) {
+            status = -1;
+        }
+        if (measured) {
+            recorder.record(operation, intendedStart, actualStart, System.nanoTime(), status);
+        }
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
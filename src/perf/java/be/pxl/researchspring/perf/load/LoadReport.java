@@ -0,0 +1,101 @@
+package be.pxl.researchspring.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes a run as {@code summary.json} plus one HdrHistogram percentile distribution ({@code .hgrm})
+ * per operation. The .hgrm files can be overlaid across runs with the HdrHistogram plotter.
+ */
+class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadConfig config;
+    private final LatencyRecorder recorder;
+    private final double measuredSeconds;
+
+    LoadReport(LoadConfig config, LatencyRecorder recorder, double measuredSeconds) {
+        this.config = config;
+        this.recorder = recorder;
+        this.measuredSeconds = measuredSeconds;
+    }
+
+    Path write() throws IOException {
+        Path directory = Path.of(config.outputDirectory(),
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(directory);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("config", config);
+        summary.put("measuredSeconds", measuredSeconds);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram responseTimes = recorder.responseTimes(operation);
+            if (responseTimes.getTotalCount() == 0) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            for (LatencyRecorder.Outcome outcome : LatencyRecorder.Outcome.values()) {
+                stats.put(outcome.name().toLowerCase(), recorder.count(operation, outcome));
+            }
+            stats.put("throughputPerSecond", responseTimes.getTotalCount() / measuredSeconds);
+            stats.put("responseTimeMillis", percentiles(responseTimes));
+            stats.put("serviceTimeMillis", percentiles(recorder.serviceTimes(operation)));
+            operations.put(operation.name().toLowerCase(), stats);
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    directory.resolve(operation.name().toLowerCase() + ".hgrm")))) {
+                responseTimes.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        summary.put("operations", operations);
+
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("summary.json").toFile(), summary);
+        return directory;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-8s %10s %8s %8s %10s %10s %10s %10s%n",
+                "op", "ok", "404", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorder.responseTimes(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("%-8s %10d %8d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                    operation.name().toLowerCase(),
+                    recorder.count(operation, LatencyRecorder.Outcome.OK),
+                    recorder.count(operation, LatencyRecorder.Outcome.NOT_FOUND),
+                    recorder.count(operation, LatencyRecorder.Outcome.ERROR)
+                            + recorder.count(operation, LatencyRecorder.Outcome.REJECTED),
+                    histogram.getTotalCount() / measuredSeconds,
+                    histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                    histogram.getMaxValue() / MICROS_PER_MILLI);
+        }
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String label = percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+            values.put("p" + label, histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+        }
+        values.put("max", histogram.getMaxValue() / MICROS_PER_MILLI);
+        return values;
+    }
+}
@@ -0,0 +1,9 @@
+package be.pxl.researchspring.perf.load;
+
+enum Operation {
+    CREATE,
+    READ,
+    LIST,
+    TOGGLE,
+    DELETE
+}
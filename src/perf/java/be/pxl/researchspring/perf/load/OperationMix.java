@@ -0,0 +1,37 @@
+package be.pxl.researchspring.perf.load;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks operations at random according to their relative weights.
+ */
+class OperationMix {
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    OperationMix(Map<Operation, Integer> weights) {
+        this.operations = weights.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix needs at least one positive weight");
+        }
+        this.totalWeight = total;
+    }
+
+    Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < operations.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
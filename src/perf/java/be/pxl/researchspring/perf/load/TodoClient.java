@@ -0,0 +1,80 @@
+package be.pxl.researchspring.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Issues the TodoController requests for each operation and keeps the id pool up to date.
+ */
+class TodoClient {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final IdPool ids;
+
+    TodoClient(String baseUrl, IdPool ids) {
+        this.baseUrl = baseUrl;
+        this.ids = ids;
+    }
+
+    /**
+     * @return the HTTP status, or 0 when there was no todo to operate on
+     */
+    int execute(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case CREATE -> create("Load_Todo_" + System.nanoTime());
+            case READ -> withId(ids.random(), id -> send(get("/todos/" + id)));
+            case LIST -> send(get("/todos?limit=100&after=" + randomCursor()));
+            case TOGGLE -> withId(ids.random(), id -> send(request("/todos/" + id + "/completed?completed="
+                    + ThreadLocalRandom.current().nextBoolean()).method("PATCH", HttpRequest.BodyPublishers.noBody())));
+            case DELETE -> withId(ids.take(), id -> send(request("/todos/" + id).DELETE()));
+        };
+    }
+
+    int create(String title) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                request("/todos?title=" + title).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 201) {
+            ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+        return response.statusCode();
+    }
+
+    private long randomCursor() {
+        Long id = ids.random();
+        return id == null ? 0 : Math.max(0, id - 100);
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static int withId(Long id, IdRequest request) throws IOException, InterruptedException {
+        return id == null ? 0 : request.send(id);
+    }
+
+    @FunctionalInterface
+    private interface IdRequest {
+        int send(long id) throws IOException, InterruptedException;
+    }
+}
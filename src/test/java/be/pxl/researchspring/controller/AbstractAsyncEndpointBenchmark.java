@@ -0,0 +1,105 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives POST /todos/async over HTTP at high concurrency and reports throughput and latency
+ * percentiles. Subclasses pick the executor mode so the two runs can be compared.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+abstract class AbstractAsyncEndpointBenchmark {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    private static final int CONCURRENCY = 200;
+    private static final int TOTAL_REQUESTS = 5_000;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    protected abstract String mode();
+
+    @Test
+    public void testAsyncCreateThroughputAndLatency() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long[] latencies = new long[TOTAL_REQUESTS];
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < TOTAL_REQUESTS; i++) {
+                final int requestNumber = i;
+                inFlight.acquire();
+                futures.add(users.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + port + "/todos/async?title=Bench_" + requestNumber))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 201) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        latencies[requestNumber] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long durationNanos = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.println("\n=== /todos/async (" + mode() + " threads) ===");
+        System.out.println("Concurrency: " + CONCURRENCY + ", requests: " + TOTAL_REQUESTS);
+        System.out.println("Throughput: " +
+                String.format("%.2f requests/second", TOTAL_REQUESTS * 1_000_000_000.0 / durationNanos));
+        System.out.println("Latency p50: " + percentileMillis(latencies, 0.50) + " ms");
+        System.out.println("Latency p99: " + percentileMillis(latencies, 0.99) + " ms");
+        System.out.println("Latency max: " + percentileMillis(latencies, 1.0) + " ms");
+        System.out.println("Failures: " + failures.get());
+
+        assertEquals(0, failures.get(), "All async requests should succeed");
+        assertEquals(TOTAL_REQUESTS, todoRepository.count(), "Database should contain all created todos");
+    }
+
+    private static String percentileMillis(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return String.format("%.2f", sorted[Math.max(index, 0)] / 1_000_000.0);
+    }
+}
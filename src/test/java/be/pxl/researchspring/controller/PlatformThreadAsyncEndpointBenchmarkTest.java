@@ -0,0 +1,11 @@
+package be.pxl.researchspring.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "todo.async.mode=platform")
+public class PlatformThreadAsyncEndpointBenchmarkTest extends AbstractAsyncEndpointBenchmark {
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
@@ -0,0 +1,17 @@
+package be.pxl.researchspring.controller;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+// Compare with SmallPoolAsyncEndpointBenchmarkTest: the same four connections, no thread per request
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+        "todo.reactive.r2dbc.pool.max-size=4",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+public class ReactiveAsyncEndpointBenchmarkTest extends AbstractAsyncEndpointBenchmark {
+    @Override
+    protected String mode() {
+        return "reactive event-loop";
+    }
+}
@@ -0,0 +1,280 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.response.BulkOutcome;
+import be.pxl.researchspring.api.response.BulkResultDTO;
+import be.pxl.researchspring.api.response.TodoChangesDTO;
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import be.pxl.researchspring.api.response.TodoEventType;
+import be.pxl.researchspring.api.response.TodoStatsDTO;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.impl.TodoStatsCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the reactive profile end to end over HTTP: the same endpoints, status codes and version
+ * rules as the servlet stack, served by WebFlux over R2DBC.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveTodoControllerTest {
+    private static final int CONCURRENT_UPDATES = 50;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoStatsCounter statsCounter;
+
+    @Autowired
+    private ReactiveTodoEventFeed eventFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+        statsCounter.reconcile();
+    }
+
+    @Test
+    public void testVersionsFollowTheServletStack() {
+        TodoDTO created = create("Reactive_Todo");
+        assertEquals(0, created.getVersion());
+        assertFalse(created.isCompleted());
+
+        client.get().uri("/todos/{id}", created.getId()).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"");
+
+        client.patch().uri("/todos/{id}/completed?completed=true", created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        // A stale version is refused and changes nothing
+        client.patch().uri("/todos/{id}/completed?completed=false", created.getId())
+                .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        client.patch().uri("/todos/{id}/completed?completed=false", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.ETAG);
+
+        TodoDTO current = get(created.getId());
+        assertEquals(2, current.getVersion());
+        assertFalse(current.isCompleted());
+
+        client.patch().uri("/todos/{id}/completed?completed=true", Long.MAX_VALUE)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotFound();
+        client.patch().uri("/todos/{id}/completed?completed=true", created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"two\"")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        client.delete().uri("/todos/{id}", created.getId()).exchange().expectStatus().isNoContent();
+        client.delete().uri("/todos/{id}", created.getId()).exchange().expectStatus().isNotFound();
+        client.get().uri("/todos/{id}", created.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testConcurrentConditionalUpdatesLetExactlyOneWin() {
+        TodoDTO todo = create("Contended_Todo");
+
+        List<HttpStatus> statuses = Flux.range(0, CONCURRENT_UPDATES)
+                .flatMap(i -> Mono.fromCallable(() -> HttpStatus.valueOf(client.patch()
+                        .uri("/todos/{id}/completed?completed={completed}", todo.getId(), i % 2 == 0)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .exchange()
+                        .returnResult(Void.class)
+                        .getStatus()
+                        .value())).subscribeOn(Schedulers.boundedElastic()), CONCURRENT_UPDATES)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(1, statuses.stream().filter(HttpStatus.OK::equals).count());
+        assertEquals(CONCURRENT_UPDATES - 1, statuses.stream().filter(HttpStatus.PRECONDITION_FAILED::equals).count());
+        assertEquals(1, get(todo.getId()).getVersion());
+    }
+
+    @Test
+    public void testCollectionIsVersionedAndPaged() throws Exception {
+        client.post().uri("/todos/batch")
+                .bodyValue(IntStream.range(0, 150).mapToObj(i -> "Paged_Todo_" + i).toList())
+                .exchange()
+                .expectStatus().isCreated();
+
+        String etag = client.get().uri("/todos").exchange()
+                .expectStatus().isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders().getETag();
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""));
+        client.get().uri("/todos").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+        create("Changes_The_Collection");
+        client.get().uri("/todos").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isOk();
+
+        List<TodoDTO> firstPage = client.get().uri("/todos?limit=100").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(TodoControllerSupport.NEXT_CURSOR_HEADER)
+                .expectBodyList(TodoDTO.class).returnResult().getResponseBody();
+        assertEquals(100, firstPage.size());
+        List<TodoDTO> lastPage = client.get().uri("/todos?limit=100&after={after}", firstPage.getLast().getId()).exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(TodoControllerSupport.NEXT_CURSOR_HEADER)
+                .expectBodyList(TodoDTO.class).returnResult().getResponseBody();
+        assertEquals(51, lastPage.size());
+
+        byte[] cbor = client.get().uri("/todos").accept(MediaType.APPLICATION_CBOR).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals(151, new ObjectMapper(new CBORFactory()).readValue(cbor, TodoDTO[].class).length);
+
+        List<TodoDTO> streamed = client.get().uri("/todos/stream").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(TodoDTO.class).getResponseBody()
+                .collectList().block(Duration.ofSeconds(10));
+        assertEquals(151, streamed.size());
+
+        List<TodoDTO> found = client.get().uri("/todos/search?q=paged_todo_14&prefix=true").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TodoDTO.class).returnResult().getResponseBody();
+        assertEquals(11, found.size(), "Paged_Todo_14 and Paged_Todo_140 to 149");
+    }
+
+    @Test
+    public void testBulkOperationsChangesAndStats() {
+        List<Long> ids = client.post().uri("/todos/batch")
+                .bodyValue(List.of("Bulk_1", "Bulk_2", "Bulk_3"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(TodoDTO.class).returnResult().getResponseBody()
+                .stream().map(TodoDTO::getId).toList();
+        client.post().uri("/todos/batch").bodyValue(List.of()).exchange()
+                .expectStatus().isBadRequest();
+        client.post().uri("/todos/batch").bodyValue(List.of("Bulk_4", " ")).exchange()
+                .expectStatus().isBadRequest();
+        long token = changesSince(0).getToken();
+
+        BulkResultDTO completed = client.patch().uri("/todos/completed")
+                .bodyValue(Map.of("ids", List.of(ids.get(0), ids.get(1), Long.MAX_VALUE), "completed", true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BulkResultDTO.class).returnResult().getResponseBody();
+        assertEquals(2, completed.getAffected());
+        assertEquals(BulkOutcome.UPDATED, completed.getOutcomes().get(ids.get(0)));
+        assertEquals(BulkOutcome.NOT_FOUND, completed.getOutcomes().get(Long.MAX_VALUE));
+        assertEquals(3, stats().getTotal());
+        assertEquals(2, stats().getCompleted());
+
+        client.delete().uri("/todos/completed").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.deleted").isEqualTo(2);
+        TodoChangesDTO delta = changesSince(token);
+        assertEquals(List.of(ids.get(0), ids.get(1)), delta.getDeleted());
+
+        BulkResultDTO deleted = client.post().uri("/todos/bulk-delete")
+                .bodyValue(Map.of("ids", ids))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BulkResultDTO.class).returnResult().getResponseBody();
+        assertEquals(1, deleted.getAffected());
+        assertEquals(BulkOutcome.DELETED, deleted.getOutcomes().get(ids.get(2)));
+        assertEquals(0, stats().getTotal());
+    }
+
+    @Test
+    public void testCommittedWritesReachEventSubscribers() throws Exception {
+        int subscribersBefore = eventFeed.getSubscriberCount();
+        Flux<ServerSentEvent<String>> events = client.get().uri("/todos/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .getResponseBody()
+                .filter(event -> event.data() != null);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (eventFeed.getSubscriberCount() == subscribersBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        TodoDTO todo = create("Event_Todo");
+        client.delete().uri("/todos/{id}", todo.getId()).exchange().expectStatus().isNoContent();
+
+        List<TodoEventDTO> received = events.take(2)
+                .map(event -> read(event.data()))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        assertEquals(TodoEventType.CREATED, received.get(0).getType());
+        assertEquals("Event_Todo", received.get(0).getTodo().getTitle());
+        assertEquals(TodoEventType.DELETED, received.get(1).getType());
+        assertEquals(todo.getId(), received.get(1).getId());
+    }
+
+    private TodoDTO create(String title) {
+        return client.post().uri("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("title", title))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TodoDTO.class).returnResult().getResponseBody();
+    }
+
+    private TodoDTO get(long id) {
+        return client.get().uri("/todos/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody(TodoDTO.class).returnResult().getResponseBody();
+    }
+
+    private TodoChangesDTO changesSince(long token) {
+        return client.get().uri("/todos/changes?since={since}", token).exchange()
+                .expectStatus().isOk()
+                .expectBody(TodoChangesDTO.class).returnResult().getResponseBody();
+    }
+
+    private TodoStatsDTO stats() {
+        return client.get().uri("/todos/stats").exchange()
+                .expectStatus().isOk()
+                .expectBody(TodoStatsDTO.class).returnResult().getResponseBody();
+    }
+
+    private TodoEventDTO read(String json) {
+        try {
+            return objectMapper.readValue(json, TodoEventDTO.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
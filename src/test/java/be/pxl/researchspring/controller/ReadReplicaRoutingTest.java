@@ -0,0 +1,114 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.repository.TodoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs with the replica pool pointed at the same local database, which is enough to see where
+ * each request takes its connection: writes from the primary pool, reads from the replica pool,
+ * and reads of a client that just wrote from the primary pool again.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "todo.datasource.replica.enabled=true",
+        "todo.datasource.replica.max-lag-ms=60000"
+})
+public class ReadReplicaRoutingTest {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWrites;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testReadsUseTheReplicaUnlessTheClientJustWrote() throws Exception {
+        long primaryBefore = acquisitions("primary");
+        long replicaBefore = acquisitions("replica");
+        HttpResponse<String> created = send("writer", HttpRequest.newBuilder(uri("/todos?title=Routed"))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        assertEquals(201, created.statusCode());
+        assertTrue(acquisitions("primary") > primaryBefore, "Writes must use the primary pool");
+        assertEquals(replicaBefore, acquisitions("replica"), "Writes must not touch the replica pool");
+
+        long pinnedBefore = readYourWrites.getPinnedRequests();
+        HttpResponse<String> ownRead = send("writer", HttpRequest.newBuilder(uri("/todos?limit=10")).GET());
+        assertEquals(200, ownRead.statusCode());
+        assertTrue(ownRead.body().contains("Routed"));
+        assertEquals(replicaBefore, acquisitions("replica"), "A client that just wrote must read from the primary");
+        assertEquals(pinnedBefore + 1, readYourWrites.getPinnedRequests());
+
+        HttpResponse<String> otherRead = send("reader", HttpRequest.newBuilder(uri("/todos?limit=10")).GET());
+        assertEquals(200, otherRead.statusCode());
+        assertTrue(otherRead.body().contains("Routed"));
+        assertEquals(replicaBefore + 1, acquisitions("replica"), "Other clients must read from the replica");
+
+        System.out.println("Connection acquisitions: primary " + (acquisitions("primary") - primaryBefore)
+                + ", replica " + (acquisitions("replica") - replicaBefore));
+    }
+
+    @Test
+    public void testCachedCollectionIsLoadedFromThePrimaryAndStaysVersioned() throws Exception {
+        assertEquals(201, send("writer", HttpRequest.newBuilder(uri("/todos?title=Cached"))
+                .POST(HttpRequest.BodyPublishers.noBody())).statusCode());
+
+        // Right after a write: a replica could still miss it, so the cache fill must not use it
+        long primaryBefore = acquisitions("primary");
+        long replicaBefore = acquisitions("replica");
+        HttpResponse<String> first = send("reader", HttpRequest.newBuilder(uri("/todos")).GET());
+        assertEquals(200, first.statusCode());
+        assertTrue(first.body().contains("Cached"));
+        String etag = first.headers().firstValue("ETag").orElseThrow(() -> new AssertionError("Missing ETag"));
+        assertEquals(primaryBefore + 1, acquisitions("primary"), "The cache must be filled from the primary");
+        assertEquals(replicaBefore, acquisitions("replica"));
+
+        HttpResponse<String> revalidated = send("reader", HttpRequest.newBuilder(uri("/todos"))
+                .header("If-None-Match", etag).GET());
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(primaryBefore + 1, acquisitions("primary"), "A 304 should not need a connection");
+        assertEquals(replicaBefore, acquisitions("replica"), "A 304 should not need a connection");
+    }
+
+    private HttpResponse<String> send(String clientId, HttpRequest.Builder request) throws Exception {
+        return client.send(request.header(AsyncAdmissionControl.CLIENT_ID_HEADER, clientId).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    // A pool registers its meters when it starts, on its first connection
+    private long acquisitions(String pool) {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+        return acquire != null ? acquire.count() : 0;
+    }
+}
@@ -0,0 +1,14 @@
+package be.pxl.researchspring.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "todo.async.mode=platform",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+public class SmallPoolAsyncEndpointBenchmarkTest extends AbstractAsyncEndpointBenchmark {
+    @Override
+    protected String mode() {
+        return "small-pool platform";
+    }
+}
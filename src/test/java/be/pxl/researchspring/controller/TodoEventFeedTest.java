@@ -0,0 +1,116 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.response.TodoEventDTO;
+import be.pxl.researchspring.api.response.TodoEventType;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.TodoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Opens many SSE subscriptions to GET /todos/events and checks that every subscriber sees the
+ * create, toggle and delete events of committed writes, in order.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class TodoEventFeedTest {
+    private static final int SUBSCRIBERS = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoEventBroadcaster broadcaster;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testCommittedWritesAreBroadcastToEverySubscriber() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            subscribeAndWrite(client);
+        } finally {
+            // close() would wait for the event streams to end, which they never do on their own
+            client.shutdownNow();
+        }
+    }
+
+    private void subscribeAndWrite(HttpClient client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/todos/events")).GET().build();
+        List<BlockingQueue<TodoEventDTO>> received = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            BlockingQueue<TodoEventDTO> events = new LinkedBlockingQueue<>();
+            received.add(events);
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                    .thenAccept(response -> readEvents(response.body(), events));
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (broadcaster.getSubscriberCount() < SUBSCRIBERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(SUBSCRIBERS, broadcaster.getSubscriberCount());
+
+        long start = System.nanoTime();
+        Todo todo = todoService.create("Event_Todo");
+        todoService.updateCompleted(todo.getId(), true);
+        todoService.delete(todo.getId());
+
+        for (BlockingQueue<TodoEventDTO> events : received) {
+            TodoEventDTO created = events.poll(10, TimeUnit.SECONDS);
+            TodoEventDTO updated = events.poll(10, TimeUnit.SECONDS);
+            TodoEventDTO deleted = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(deleted, "Every subscriber should receive all three events");
+            assertEquals(TodoEventType.CREATED, created.getType());
+            assertEquals("Event_Todo", created.getTodo().getTitle());
+            assertEquals(TodoEventType.UPDATED, updated.getType());
+            assertTrue(updated.getTodo().isCompleted());
+            assertEquals(TodoEventType.DELETED, deleted.getType());
+            assertEquals(todo.getId(), deleted.getId());
+        }
+        long fanOutMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println("Delivered 3 events to " + SUBSCRIBERS + " subscribers in " + fanOutMillis + " ms");
+    }
+
+    private void readEvents(Stream<String> lines, BlockingQueue<TodoEventDTO> events) {
+        lines.filter(line -> line.startsWith("data:"))
+                .forEach(line -> {
+                    try {
+                        events.add(objectMapper.readValue(line.substring("data:".length()), TodoEventDTO.class));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+    }
+}
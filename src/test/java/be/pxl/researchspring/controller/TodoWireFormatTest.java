@@ -0,0 +1,147 @@
+package be.pxl.researchspring.controller;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.TodoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests GET /todos and POST /todos in JSON, CBOR and Smile, with and without gzip, and
+ * reports the size of the collection in each.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class TodoWireFormatTest {
+    private static final String JSON = "application/json";
+    private static final String CBOR = "application/cbor";
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final int TODOS = 1000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final Map<String, ObjectMapper> mappers = Map.of(
+            JSON, new ObjectMapper(),
+            CBOR, new ObjectMapper(new CBORFactory()),
+            SMILE, new ObjectMapper(new SmileFactory()));
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testCollectionIsNegotiatedAndCompressed() throws Exception {
+        todoService.createAll(IntStream.range(0, TODOS).mapToObj(i -> "Wire_Todo_" + i).toList());
+
+        StringBuilder report = new StringBuilder("Payload of " + TODOS + " todos:");
+        for (String format : List.of(JSON, CBOR, SMILE)) {
+            HttpResponse<byte[]> plain = get(format, "identity");
+            HttpResponse<byte[]> gzipped = get(format, "gzip");
+            assertEquals(200, plain.statusCode());
+            assertEquals(format, plain.headers().firstValue("Content-Type").orElseThrow());
+            assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty());
+            assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElseThrow());
+
+            byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(gzipped.body())).readAllBytes();
+            TodoDTO[] todos = mappers.get(format).readValue(unzipped, TodoDTO[].class);
+            assertEquals(TODOS, todos.length);
+            assertTrue(todos[0].getTitle().startsWith("Wire_Todo_"));
+            report.append(String.format(" %s %d B (gzip %d B);", format, plain.body().length, gzipped.body().length));
+        }
+        System.out.println(report);
+    }
+
+    @Test
+    public void testSmallResponsesAreNotCompressed() throws Exception {
+        todoService.create("Small");
+
+        HttpResponse<byte[]> response = get(JSON, "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    @Test
+    public void testCreateAcceptsABodyInEveryFormat() throws Exception {
+        for (String format : List.of(JSON, CBOR, SMILE)) {
+            ObjectMapper mapper = mappers.get(format);
+            HttpResponse<byte[]> response = post(format, mapper.writeValueAsBytes(Map.of("title", "Created as " + format)));
+
+            assertEquals(201, response.statusCode());
+            Todo created = mapper.readValue(response.body(), Todo.class);
+            assertEquals("Created as " + format, created.getTitle());
+        }
+
+        assertEquals(400, post(JSON, "{\"title\":\" \"}".getBytes()).statusCode());
+        assertEquals(400, post(JSON, "{}".getBytes()).statusCode());
+        assertEquals(3, todoRepository.count());
+    }
+
+    @Test
+    public void testBatchCreateIsValidated() throws Exception {
+        HttpResponse<byte[]> created = post("/todos/batch", JSON, "[\"Batch_1\",\"Batch_2\"]".getBytes());
+        assertEquals(201, created.statusCode());
+
+        assertEquals(400, post("/todos/batch", JSON, "[]".getBytes()).statusCode());
+        assertEquals(400, post("/todos/batch", JSON, "[\"Batch_3\",\" \"]".getBytes()).statusCode());
+        assertEquals(400, post("/todos/batch", JSON, "[\"Batch_3\",null]".getBytes()).statusCode());
+        String tooMany = IntStream.range(0, 10_001).mapToObj(i -> "\"Batch_" + i + "\"")
+                .collect(Collectors.joining(",", "[", "]"));
+        assertEquals(400, post("/todos/batch", JSON, tooMany.getBytes()).statusCode());
+        assertEquals(2, todoRepository.count());
+    }
+
+    private HttpResponse<byte[]> get(String format, String encoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/todos"))
+                .header("Accept", format)
+                .header("Accept-Encoding", encoding)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpResponse<byte[]> post(String format, byte[] body) throws IOException, InterruptedException {
+        return post("/todos", format, body);
+    }
+
+    private HttpResponse<byte[]> post(String path, String format, byte[] body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", format)
+                .header("Accept", format)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
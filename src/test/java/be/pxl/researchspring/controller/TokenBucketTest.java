@@ -0,0 +1,32 @@
+package be.pxl.researchspring.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstIsAdmittedThenRejected() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0), "Next token should be one second away");
+    }
+
+    @Test
+    public void testTokensRefillOverTimeUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertEquals(0, bucket.tryAcquire(SECOND));
+        assertFalse(bucket.isIdle(SECOND));
+        assertTrue(bucket.isIdle(10 * SECOND), "Bucket should be full again after a long pause");
+    }
+}
@@ -0,0 +1,11 @@
+package be.pxl.researchspring.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "todo.async.mode=virtual")
+public class VirtualThreadAsyncEndpointBenchmarkTest extends AbstractAsyncEndpointBenchmark {
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,157 @@
+package be.pxl.researchspring.repository.memory;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryTodoRepositoryTest {
+    @TempDir
+    private Path dataDir;
+
+    @TempDir
+    private Path crashCopy;
+
+    @Test
+    public void testStateIsReplayedFromTheLogAfterACrash() throws Exception {
+        InMemoryTodoRepository crashed = open(dataDir);
+        Todo kept = crashed.save(new Todo("Kept"));
+        Todo deleted = crashed.save(new Todo("Deleted"));
+        crashed.updateCompleted(kept.getId(), true, 0L);
+        crashed.deleteReturningCompleted(deleted.getId());
+        long horizon = crashed.findChangeHorizon();
+
+        // What a killed process leaves behind: the files as they are, mapped pages included
+        try (Stream<Path> files = Files.list(dataDir)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, crashCopy.resolve(file.getFileName()));
+            }
+        }
+        InMemoryTodoRepository recovered = open(crashCopy);
+
+        assertEquals(1, recovered.count());
+        Todo restored = recovered.findById(kept.getId()).orElseThrow();
+        assertEquals("Kept", restored.getTitle());
+        assertTrue(restored.isCompleted());
+        assertEquals(1L, restored.getVersion());
+        assertEquals(List.of(deleted.getId()), recovered.findDeletedIds(0, horizon));
+        assertTrue(recovered.save(new Todo("Next")).getId() > deleted.getId(), "Ids must not be reused");
+        recovered.close();
+        crashed.close();
+    }
+
+    @Test
+    public void testEntriesAfterAnUnwrittenRangeAreReplayed() throws Exception {
+        InMemoryTodoRepository crashed = open(dataDir);
+        Todo first = crashed.save(new Todo("First"));
+        crashed.save(new Todo("Lost"));
+        Todo third = crashed.save(new Todo("Third"));
+        try (Stream<Path> files = Files.list(dataDir)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, crashCopy.resolve(file.getFileName()));
+            }
+        }
+
+        // A writer that crashed between reserving its range and writing into it leaves zeros
+        try (FileChannel segment = FileChannel.open(crashCopy.resolve("log-0000000000.seg"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            segment.read(length, 0);
+            int second = 4 + length.getInt(0);
+            segment.read(length.clear(), second);
+            segment.write(ByteBuffer.allocate(4 + length.getInt(0)), second);
+        }
+        InMemoryTodoRepository recovered = open(crashCopy);
+
+        assertEquals(2, recovered.count());
+        assertEquals("First", recovered.findById(first.getId()).orElseThrow().getTitle());
+        assertEquals("Third", recovered.findById(third.getId()).orElseThrow().getTitle());
+        recovered.close();
+        crashed.close();
+    }
+
+    @Test
+    public void testSnapshotIsLoadedAfterAShutdown() throws Exception {
+        InMemoryTodoRepository repository = open(dataDir);
+        for (int i = 0; i < 1000; i++) {
+            repository.save(new Todo("Todo_" + i));
+        }
+        Todo stale = repository.findById(1L).orElseThrow();
+        repository.updateCompleted(1L, true, null);
+        stale.setCompleted(false);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> repository.save(stale));
+        repository.close();
+
+        InMemoryTodoRepository reopened = open(dataDir);
+
+        assertEquals(1000, reopened.count());
+        assertEquals(1, reopened.countTodos().getCompleted());
+        assertEquals(1L, reopened.findById(1L).orElseThrow().getVersion());
+        reopened.close();
+    }
+
+    @Test
+    public void testIdsAreNotReusedWhenTheSnapshotHoldsRowsPastItsHeader() throws Exception {
+        // The header is read before the rows are copied, so writes racing the snapshot land in
+        // its rows; if the segment holding them is lost, the rows are all that is left of them
+        TodoChangeLog log = new TodoChangeLog(dataDir, 16 * 1024);
+        List<StoredTodo> rows = List.of(
+                new StoredTodo(1, "Counted", false, 0, 1),
+                new StoredTodo(2, "Raced", false, 0, 2),
+                new StoredTodo(3, "Raced", false, 0, 3));
+        log.writeSnapshot(1, 1, 1, 0, rows.iterator(), List.of());
+        InMemoryTodoRepository repository = open(dataDir);
+
+        Todo next = repository.save(new Todo("Next"));
+
+        assertEquals(4L, next.getId());
+        assertEquals(4, repository.count());
+        // Change tokens move on past the rows too, or a client holding one would miss the insert
+        assertEquals(List.of(next.getId()), repository.findProjectedChanged(4, repository.findChangeHorizon())
+                .stream().map(TodoDTO::getId).toList());
+        repository.close();
+    }
+
+    @Test
+    public void testConcurrentUpdatesToOneRowAreNotLost() throws Exception {
+        InMemoryTodoRepository repository = open(dataDir);
+        long id = repository.save(new Todo("Contended")).getId();
+        int writers = 16;
+        int updatesPerWriter = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        for (int i = 0; i < writers; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < updatesPerWriter; j++) {
+                    repository.updateCompleted(id, j % 2 == 0, null);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals((long) writers * updatesPerWriter, repository.findById(id).orElseThrow().getVersion());
+        repository.close();
+    }
+
+    private static InMemoryTodoRepository open(Path dataDir) throws Exception {
+        InMemoryTodoRepository repository = new InMemoryTodoRepository(dataDir, DataSize.ofKilobytes(16), 60_000, 1_000);
+        repository.open();
+        return repository;
+    }
+}
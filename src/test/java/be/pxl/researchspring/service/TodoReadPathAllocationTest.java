@@ -0,0 +1,82 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TodoReadPathAllocationTest {
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+        todoService.createAll(IntStream.rangeClosed(1, ROWS)
+                .mapToObj(i -> "Read_Todo_" + i)
+                .toList());
+    }
+
+    @Test
+    public void testProjectionPathAllocatesLessThanEntityPath() {
+        // The previous read path: managed entities in a read-write transaction, copied into DTOs
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Supplier<List<TodoDTO>> entityPath = () -> readWrite.execute(status -> todoRepository.findAll()
+                .stream()
+                .map(TodoDTO::new)
+                .toList());
+        // The projection query behind getAllTodos, bypassing the read cache
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Supplier<List<TodoDTO>> projectionPath = () -> readOnly.execute(status -> todoRepository.findAllProjected());
+
+        long entityBytes = measureAllocatedBytes(entityPath);
+        long projectionBytes = measureAllocatedBytes(projectionPath);
+
+        System.out.println("\n=== READ PATH ALLOCATION ===");
+        System.out.println("Rows: " + ROWS);
+        System.out.println("Entity path: " + entityBytes / ROWS + " bytes/row");
+        System.out.println("Projection path: " + projectionBytes / ROWS + " bytes/row");
+        System.out.println("Reduction: " + String.format("%.1f%%", 100.0 * (entityBytes - projectionBytes) / entityBytes));
+
+        assertTrue(projectionBytes < entityBytes, "Projection path should allocate less than the entity path");
+    }
+
+    private long measureAllocatedBytes(Supplier<List<TodoDTO>> readPath) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            assertEquals(ROWS, readPath.get().size());
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            readPath.get();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ROUNDS;
+    }
+}
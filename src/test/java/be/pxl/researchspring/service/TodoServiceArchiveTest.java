@@ -0,0 +1,168 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.TodoChangesDTO;
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.impl.TodoArchiver;
+import be.pxl.researchspring.service.impl.TodoStatsCounter;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "todo.archive.enabled=true",
+        "todo.archive.min-age=1h",
+        "todo.archive.batch-size=100",
+        "todo.archive.batch-delay-ms=0",
+        // Runs are triggered by the tests
+        "todo.archive.interval-ms=3600000"
+})
+public class TodoServiceArchiveTest {
+    private static final int TODO_COUNT = 1000;
+    private static final int AGED = 350;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoArchiver archiver;
+
+    @Autowired
+    private TodoStatsCounter statsCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        // Deleting through the repository bypasses the counters, so start from the database counts
+        todoRepository.deleteAll();
+        statsCounter.reconcile();
+        jdbcTemplate.update("DELETE FROM todos_archive");
+    }
+
+    @Test
+    public void testOnlyTodosCompletedLongAgoAreArchived() throws Exception {
+        List<Long> ids = todoService.createAll(IntStream.range(0, TODO_COUNT).mapToObj(i -> "Archive_Todo_" + i).toList())
+                .stream().map(Todo::getId).toList();
+        todoService.updateCompleted(ids.subList(0, 500), true);
+        // Completed long enough ago: the first AGED, plus one that was reopened since
+        List<Long> aged = ids.subList(0, AGED);
+        backdateCompletion(ids.subList(0, AGED + 1));
+        todoService.updateCompleted(ids.get(AGED), false);
+        long token = todoService.getChangesSince(0).getToken();
+        long batchesBefore = archiver.getBatches();
+
+        long start = System.nanoTime();
+        long archived = archiver.run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(AGED, archived);
+        assertEquals(4, archiver.getBatches() - batchesBefore, "Three full batches and the last partial one");
+        assertEquals(TODO_COUNT - AGED, todoRepository.count());
+        assertEquals(TODO_COUNT - AGED, todoService.getStats().getTotal());
+        assertEquals(500 - AGED - 1, todoService.getStats().getCompleted());
+        assertEquals(TODO_COUNT - AGED, todoService.getAllTodos().size());
+        assertThrows(EntityNotFoundException.class, () -> todoService.getTodo(aged.getFirst()));
+
+        List<TodoDTO> archivedPage = todoService.getArchivedTodosAfter(null, 1000);
+        assertEquals(aged, archivedPage.stream().map(TodoDTO::getId).toList());
+        assertTrue(archivedPage.stream().allMatch(TodoDTO::isCompleted));
+        TodoDTO first = todoService.getArchivedTodo(aged.getFirst());
+        assertEquals("Archive_Todo_0", first.getTitle());
+        assertEquals(1L, first.getVersion());
+        assertThrows(EntityNotFoundException.class, () -> todoService.getArchivedTodo(ids.get(AGED)));
+
+        TodoChangesDTO delta = todoService.getChangesSince(token);
+        assertEquals(aged, delta.getDeleted(), "Delta sync clients drop archived todos");
+        assertEquals(0, archiver.run(), "Nothing is left to archive");
+
+        System.out.println("Archived " + archived + " of " + TODO_COUNT + " todos in " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testArchivingWaitsWhileRequestsWaitForAConnection() throws Exception {
+        List<Long> ids = todoService.createAll(List.of("Busy_1", "Busy_2")).stream().map(Todo::getId).toList();
+        todoService.updateCompleted(ids, true);
+        backdateCompletion(ids);
+        long deferralsBefore = archiver.getDeferrals();
+
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        List<Connection> held = new ArrayList<>();
+        CompletableFuture<Connection> waiting;
+        try {
+            for (int i = 0; i < pool.getMaximumPoolSize(); i++) {
+                held.add(pool.getConnection());
+            }
+            waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.getConnection();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            while (pool.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(0, archiver.run());
+            assertEquals(deferralsBefore + 1, archiver.getDeferrals());
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+        waiting.get().close();
+
+        assertEquals(2, archiver.run());
+    }
+
+    @Test
+    public void testCompletionTimeFollowsTheCompletedFlag() {
+        Todo todo = todoService.create("Stamped");
+        assertNull(completedAt(todo.getId()));
+
+        todoService.updateCompleted(todo.getId(), true);
+        Object completed = completedAt(todo.getId());
+        assertNotNull(completed);
+        todoService.updateCompleted(todo.getId(), true);
+        assertEquals(completed, completedAt(todo.getId()), "Completing again keeps the first completion time");
+
+        todoService.updateCompleted(todo.getId(), false);
+        assertNull(completedAt(todo.getId()));
+    }
+
+    private void backdateCompletion(List<Long> ids) {
+        for (Long id : ids) {
+            jdbcTemplate.update("UPDATE todos SET completed_at = now() - interval '2 hours' WHERE id = ?", id);
+        }
+    }
+
+    private Object completedAt(Long id) {
+        return jdbcTemplate.queryForObject("SELECT completed_at FROM todos WHERE id = ?", Object.class, id);
+    }
+}
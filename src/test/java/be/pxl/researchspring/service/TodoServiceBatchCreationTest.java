@@ -0,0 +1,83 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TodoServiceBatchCreationTest {
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    private static final int CONCURRENT_USERS = 100;
+    private static final int TODOS_PER_USER = 100;
+    private static final int EXPECTED_TOTAL = CONCURRENT_USERS * TODOS_PER_USER;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testBatchCreationThroughputComparedToSingleRowPath() throws Exception {
+        // Single-row path: same shape as TodoServiceConcurrentCreationTest
+        long singleStart = System.currentTimeMillis();
+        ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENT_USERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int userId = 1; userId <= CONCURRENT_USERS; userId++) {
+            final int userNumber = userId;
+            futures.add(executorService.submit(() -> {
+                for (int todoNumber = 1; todoNumber <= TODOS_PER_USER; todoNumber++) {
+                    todoService.create(String.format("Single_%d_Todo_%d", userNumber, todoNumber));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        long singleDuration = System.currentTimeMillis() - singleStart;
+        assertEquals(EXPECTED_TOTAL, todoRepository.count());
+
+        todoRepository.deleteAll();
+
+        // Batch path: one call, inserted in JDBC batches
+        List<String> titles = IntStream.rangeClosed(1, EXPECTED_TOTAL)
+                .mapToObj(i -> "Batch_Todo_" + i)
+                .toList();
+        long batchStart = System.currentTimeMillis();
+        List<Todo> created = todoService.createAll(titles);
+        long batchDuration = System.currentTimeMillis() - batchStart;
+
+        double singleThroughput = EXPECTED_TOTAL * 1000.0 / Math.max(singleDuration, 1);
+        double batchThroughput = EXPECTED_TOTAL * 1000.0 / Math.max(batchDuration, 1);
+
+        System.out.println("\n=== BATCH VS SINGLE-ROW ===");
+        System.out.println("Single-row path: " + singleDuration + " ms, " +
+                String.format("%.2f todos/second", singleThroughput));
+        System.out.println("Batch path: " + batchDuration + " ms, " +
+                String.format("%.2f todos/second", batchThroughput));
+        System.out.println("Speedup: " + String.format("%.2fx", batchThroughput / singleThroughput));
+
+        assertEquals(EXPECTED_TOTAL, created.size(), "All todos should be returned");
+        assertTrue(created.stream().allMatch(todo -> todo.getId() != null), "Every todo should have an id");
+        assertEquals(EXPECTED_TOTAL, todoRepository.count(), "Database should contain all created todos");
+    }
+}
@@ -0,0 +1,68 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.BulkOutcome;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TodoServiceBulkOperationsTest {
+    private static final int TODO_COUNT = 2500;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testBulkCompleteAndDeleteReportPerIdOutcomes() {
+        List<Todo> todos = todoService.createAll(IntStream.range(0, TODO_COUNT).mapToObj(i -> "Bulk_Todo_" + i).toList());
+        List<Long> ids = new ArrayList<>(todos.stream().map(Todo::getId).toList());
+        long missingId = -1L;
+        ids.add(missingId);
+        ids.add(ids.getFirst());
+
+        long start = System.currentTimeMillis();
+        Map<Long, BulkOutcome> completed = todoService.updateCompleted(ids, true);
+        long completeTime = System.currentTimeMillis() - start;
+
+        assertEquals(TODO_COUNT + 1, completed.size(), "Duplicate ids should be reported once");
+        assertEquals(BulkOutcome.NOT_FOUND, completed.get(missingId));
+        assertEquals(TODO_COUNT, completed.values().stream().filter(o -> o == BulkOutcome.UPDATED).count());
+        assertTrue(todoService.getAllTodos().stream().allMatch(t -> t.isCompleted()), "The read cache should be invalidated");
+
+        List<Long> toDelete = ids.subList(0, 10);
+        Map<Long, BulkOutcome> deleted = todoService.deleteAll(toDelete);
+        assertTrue(deleted.values().stream().allMatch(o -> o == BulkOutcome.DELETED));
+        assertEquals(BulkOutcome.NOT_FOUND, todoService.deleteAll(toDelete).get(ids.getFirst()));
+
+        todoService.updateCompleted(List.of(ids.get(10)), false);
+        start = System.currentTimeMillis();
+        int deletedCompleted = todoService.deleteAllCompleted();
+        long deleteCompletedTime = System.currentTimeMillis() - start;
+
+        assertEquals(TODO_COUNT - 11, deletedCompleted);
+        assertEquals(1, todoRepository.count());
+
+        System.out.println("Bulk completed " + TODO_COUNT + " todos in " + completeTime + " ms");
+        System.out.println("Deleted " + deletedCompleted + " completed todos in " + deleteCompletedTime + " ms");
+    }
+}
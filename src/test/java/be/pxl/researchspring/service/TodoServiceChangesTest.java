@@ -0,0 +1,61 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.TodoChangesDTO;
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TodoServiceChangesTest {
+    private static final int TODO_COUNT = 1000;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testChangesSinceTokenContainOnlyWritesAndDeletes() {
+        List<Todo> todos = todoService.createAll(IntStream.range(0, TODO_COUNT).mapToObj(i -> "Sync_Todo_" + i).toList());
+
+        TodoChangesDTO snapshot = todoService.getChangesSince(0);
+        assertEquals(TODO_COUNT, snapshot.getUpserts().size());
+        assertTrue(snapshot.getDeleted().isEmpty());
+
+        Todo toggled = todos.get(1);
+        Todo deleted = todos.get(2);
+        todoService.updateCompleted(toggled.getId(), true);
+        todoService.delete(deleted.getId());
+        Todo created = todoService.create("Sync_Todo_New");
+
+        TodoChangesDTO delta = todoService.getChangesSince(snapshot.getToken());
+        List<Long> upsertIds = delta.getUpserts().stream().map(TodoDTO::getId).toList();
+        assertEquals(List.of(toggled.getId(), created.getId()), upsertIds);
+        assertTrue(delta.getUpserts().getFirst().isCompleted());
+        assertEquals(List.of(deleted.getId()), delta.getDeleted());
+        assertTrue(delta.getToken() > snapshot.getToken());
+
+        TodoChangesDTO empty = todoService.getChangesSince(delta.getToken());
+        assertTrue(empty.getUpserts().isEmpty() && empty.getDeleted().isEmpty(), "Nothing changed since the last token");
+
+        System.out.println("Full sync returned " + snapshot.getUpserts().size() + " todos, delta returned "
+                + delta.getUpserts().size() + " upserts and " + delta.getDeleted().size() + " deletes");
+    }
+}
@@ -1,7 +1,7 @@
 package be.pxl.researchspring.service;
 
 import be.pxl.researchspring.domain.Todo;
-import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.repository.TodoStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -22,7 +22,7 @@ public class TodoServiceConcurrentCreationTest {
     private TodoService todoService;
 
     @Autowired
-    private TodoRepository todoRepository;
+    private TodoStore todoRepository;
 
     private static final int CONCURRENT_USERS = 100;
     private static final int TODOS_PER_USER = 100;
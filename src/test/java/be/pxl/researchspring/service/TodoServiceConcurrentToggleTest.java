@@ -0,0 +1,223 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.impl.TodoRetryListener;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TodoServiceConcurrentToggleTest {
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoRetryListener retryListener;
+
+    @Value("${spring.datasource.url}")
+    private String databaseUrl;
+
+    @Value("${spring.datasource.username}")
+    private String databaseUser;
+
+    @Value("${spring.datasource.password}")
+    private String databasePassword;
+
+    private static final int CONCURRENT_USERS = 50;
+    private static final int TOGGLES_PER_USER = 100;
+    private static final int HOT_TODOS = 5;
+    private static final int TOTAL_TOGGLES = CONCURRENT_USERS * TOGGLES_PER_USER;
+
+    private List<Todo> hotTodos;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+        hotTodos = new ArrayList<>();
+        for (int i = 1; i <= HOT_TODOS; i++) {
+            hotTodos.add(todoService.create("Hot_Todo_" + i));
+        }
+    }
+
+    @Test
+    public void testConcurrentTogglesOnHotRows() throws Exception {
+        long retriesBefore = retryListener.getRetries();
+        long[] latencies = new long[TOTAL_TOGGLES];
+        AtomicInteger errors = new AtomicInteger();
+        AtomicIntegerArray togglesPerTodo = new AtomicIntegerArray(HOT_TODOS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+
+        // Its own connection, so sampling neither takes a pooled one from the writers nor waits for one
+        LockWaitSampler lockWaits = new LockWaitSampler(
+                DriverManager.getConnection(databaseUrl, databaseUser, databasePassword));
+        Thread sampler = new Thread(lockWaits, "LockWaitSampler");
+        ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENT_USERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int userId = 0; userId < CONCURRENT_USERS; userId++) {
+            final int userNumber = userId;
+            futures.add(executorService.submit(() -> {
+                startSignal.await();
+                for (int i = 0; i < TOGGLES_PER_USER; i++) {
+                    int index = (userNumber + i) % HOT_TODOS;
+                    long start = System.nanoTime();
+                    try {
+                        todoService.updateCompleted(hotTodos.get(index).getId(), i % 2 == 0);
+                        togglesPerTodo.incrementAndGet(index);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[userNumber * TOGGLES_PER_USER + i] = System.nanoTime() - start;
+                    }
+                }
+                return null;
+            }));
+        }
+
+        sampler.start();
+        long start = System.nanoTime();
+        startSignal.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            lockWaits.stop();
+            sampler.join();
+        }
+        long durationNanos = System.nanoTime() - start;
+        executorService.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.println("\n=== CONCURRENT TOGGLE RESULTS ===");
+        System.out.println("Users: " + CONCURRENT_USERS + ", hot todos: " + HOT_TODOS + ", toggles: " + TOTAL_TOGGLES);
+        System.out.println("Throughput: " +
+                String.format("%.2f toggles/second", TOTAL_TOGGLES * 1_000_000_000.0 / durationNanos));
+        System.out.println("Latency p50: " + millis(latencies[TOTAL_TOGGLES / 2]) + " ms");
+        System.out.println("Latency p99: " + millis(latencies[(int) (TOTAL_TOGGLES * 0.99)]) + " ms");
+        System.out.println("Latency max: " + millis(latencies[TOTAL_TOGGLES - 1]) + " ms");
+        System.out.println("Lock waits: backends waiting in " + lockWaits.samplesWithWaiters + " of "
+                + lockWaits.samples + " samples, at most " + lockWaits.maxWaiters + " at once, ~"
+                + millis(lockWaits.waitingNanos()) + " ms waited in all");
+        System.out.println("Retries: " + (retryListener.getRetries() - retriesBefore));
+        System.out.println("Errors: " + errors.get());
+
+        assertNull(lockWaits.failure, "Lock wait sampling failed");
+        assertTrue(lockWaits.samples > 0, "Lock waits should have been sampled");
+        assertEquals(0, errors.get(), "No toggle should fail");
+        for (int i = 0; i < HOT_TODOS; i++) {
+            TodoDTO todo = todoService.getTodo(hotTodos.get(i).getId());
+            assertEquals(hotTodos.get(i).getVersion() + togglesPerTodo.get(i), todo.getVersion(),
+                    "Every toggle should bump the version exactly once");
+        }
+    }
+
+    @Test
+    public void testVersionPreconditionRejectsStaleWriter() {
+        Todo todo = hotTodos.getFirst();
+        long newVersion = todoService.updateCompleted(todo.getId(), true, todo.getVersion());
+
+        assertEquals(todo.getVersion() + 1, newVersion);
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> todoService.updateCompleted(todo.getId(), false, todo.getVersion()));
+    }
+
+    @Test
+    public void testFailuresThatAreNotRetriedAreNotCounted() {
+        long retriesBefore = retryListener.getRetries();
+        long exhaustedBefore = retryListener.getExhausted();
+        Todo todo = hotTodos.getFirst();
+
+        assertThrows(EntityNotFoundException.class, () -> todoService.updateCompleted(Long.MAX_VALUE, true));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> todoService.updateCompleted(todo.getId(), true, todo.getVersion() + 1));
+
+        assertEquals(0, retryListener.getRetries() - retriesBefore);
+        assertEquals(0, retryListener.getExhausted() - exhaustedBefore);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Counts the backends of this database that wait on a lock, the row locks of the hot todos
+     * included, every couple of milliseconds. Waiters times the sampling interval approximates
+     * the time spent waiting on locks.
+     */
+    private static class LockWaitSampler implements Runnable {
+        private static final String WAITERS_SQL = "SELECT count(*) FROM pg_stat_activity"
+                + " WHERE datname = current_database() AND wait_event_type = 'Lock'";
+        private static final long INTERVAL_MILLIS = 2;
+
+        private final Connection connection;
+        private volatile boolean running = true;
+        private volatile long samples;
+        private volatile long samplesWithWaiters;
+        private volatile long waiterSamples;
+        private volatile long maxWaiters;
+        private volatile long sampledNanos;
+        private volatile SQLException failure;
+
+        LockWaitSampler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            try (connection; PreparedStatement query = connection.prepareStatement(WAITERS_SQL)) {
+                while (running) {
+                    try (ResultSet result = query.executeQuery()) {
+                        result.next();
+                        long waiters = result.getLong(1);
+                        samples++;
+                        if (waiters > 0) {
+                            samplesWithWaiters++;
+                            waiterSamples += waiters;
+                            maxWaiters = Math.max(maxWaiters, waiters);
+                        }
+                    }
+                    Thread.sleep(INTERVAL_MILLIS);
+                }
+            } catch (SQLException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sampledNanos = System.nanoTime() - start;
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        long waitingNanos() {
+            return samples == 0 ? 0 : waiterSamples * (sampledNanos / samples);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package be.pxl.researchspring.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the concurrent creation scenario with group commit enabled.
+ */
+@TestPropertySource(properties = "todo.group-commit.enabled=true")
+public class TodoServiceGroupCommitCreationTest extends TodoServiceConcurrentCreationTest {
+}
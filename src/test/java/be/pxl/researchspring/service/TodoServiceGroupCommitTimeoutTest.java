@@ -0,0 +1,94 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoStore;
+import be.pxl.researchspring.service.impl.GroupCommitTodoWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "todo.group-commit.enabled=true",
+        "todo.group-commit.window-ms=50",
+        "todo.group-commit.timeout-ms=500"
+})
+public class TodoServiceGroupCommitTimeoutTest {
+    private static final long LOCK_HELD_MILLIS = 2000;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoStore todoRepository;
+
+    @Autowired
+    private GroupCommitTodoWriter groupCommitWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testTimedOutCreateIsWithdrawnAndCommittingCreateIsAwaited() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        // Holds off every insert, so the first group stalls in its commit and the next one stays queued
+        CompletableFuture<Void> lock = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE todos IN EXCLUSIVE MODE");
+            locked.countDown();
+            sleep(LOCK_HELD_MILLIS);
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS), "Table lock was not taken");
+        long cancelledBefore = groupCommitWriter.getCreatesCancelled();
+
+        CompletableFuture<Todo> committing = CompletableFuture.supplyAsync(() -> todoService.create("GroupCommit_Committing"));
+        // Past the window: the worker has taken the first create into a commit and is blocked on the lock
+        sleep(200);
+        CompletableFuture<Todo> queued = CompletableFuture.supplyAsync(() -> todoService.create("GroupCommit_Queued"));
+
+        ExecutionException timedOut = assertThrows(ExecutionException.class, () -> queued.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(QueryTimeoutException.class, timedOut.getCause());
+
+        // Outlives its own timeout and returns once the commit it is part of goes through
+        Todo created = committing.get(10, TimeUnit.SECONDS);
+        assertNotNull(created.getId());
+        lock.get(10, TimeUnit.SECONDS);
+
+        // Give the worker a chance to pick up anything still queued
+        sleep(500);
+        assertEquals(1, groupCommitWriter.getCreatesCancelled() - cancelledBefore);
+        assertEquals(0, groupCommitWriter.getQueueDepth());
+        assertEquals(1, todoRepository.count(), "Only the awaited create should have been written");
+        assertEquals("GroupCommit_Committing", todoRepository.findAll().getFirst().getTitle());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
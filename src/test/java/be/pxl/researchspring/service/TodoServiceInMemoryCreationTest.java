@@ -0,0 +1,16 @@
+package be.pxl.researchspring.service;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the concurrent creation scenarios against the in-memory store instead of Postgres.
+ * Small segments make the change log roll over several times during the run.
+ */
+@ActiveProfiles("memory")
+@TestPropertySource(properties = {
+        "todo.memory.data-dir=target/todo-memory",
+        "todo.memory.segment-size=256KB"
+})
+public class TodoServiceInMemoryCreationTest extends TodoServiceConcurrentCreationTest {
+}
@@ -0,0 +1,22 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.service.impl.TodoTitleIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the search scenarios against the in-process title index instead of Postgres.
+ */
+@TestPropertySource(properties = "todo.search.in-memory.enabled=true")
+public class TodoServiceInMemorySearchTest extends TodoServiceSearchTest {
+    @Autowired
+    private TodoTitleIndex titleIndex;
+
+    @Override
+    protected void awaitIndexed() {
+        titleIndex.refresh();
+        assertTrue(titleIndex.isReady());
+    }
+}
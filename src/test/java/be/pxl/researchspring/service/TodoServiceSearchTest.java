@@ -0,0 +1,83 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.TodoDTO;
+import be.pxl.researchspring.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TodoServiceSearchTest {
+    private static final int FILLER_TODOS = 5000;
+
+    @Autowired
+    protected TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+        List<String> titles = new ArrayList<>(List.of("Buy milk", "buy MILK chocolate", "Milkshake", "Walk the dog", "100%_done"));
+        IntStream.range(0, FILLER_TODOS).mapToObj(i -> "Filler_Todo_" + i).forEach(titles::add);
+        todoService.createAll(titles);
+        awaitIndexed();
+    }
+
+    // Hook for variants whose search index trails the table
+    protected void awaitIndexed() {
+    }
+
+    @Test
+    public void testPrefixAndSubstringMatchesIgnoreCase() {
+        assertEquals(List.of("Buy milk", "buy MILK chocolate"), titles(todoService.search("BUY", true, null, 10)));
+        assertEquals(List.of("Milkshake"), titles(todoService.search("milk", true, null, 10)));
+        assertEquals(List.of("Buy milk", "buy MILK chocolate", "Milkshake"), titles(todoService.search("milk", false, null, 10)));
+        assertEquals(List.of("Milkshake"), titles(todoService.search("KS", false, null, 10)));
+        assertTrue(todoService.search("cheese", false, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testWildcardsAreMatchedLiterally() {
+        assertEquals(List.of("100%_done"), titles(todoService.search("0%_d", false, null, 10)));
+        assertTrue(todoService.search("%", true, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testResultsArePagedById() {
+        List<TodoDTO> all = new ArrayList<>();
+        List<TodoDTO> page = todoService.search("todo_4", false, null, 100);
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            page = todoService.search("todo_4", false, page.getLast().getId(), 100);
+        }
+        // Filler_Todo_4, 40..49, 400..499 and 4000..4999
+        assertEquals(1 + 10 + 100 + 1000, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i).getId() > all.get(i - 1).getId(), "Pages should be in id order without gaps or repeats");
+        }
+
+        long start = System.nanoTime();
+        int searches = 1000;
+        for (int i = 0; i < searches; i++) {
+            todoService.search("todo_" + i, false, null, 20);
+        }
+        long micros = (System.nanoTime() - start) / 1000 / searches;
+        System.out.println(getClass().getSimpleName() + ": " + micros + " us per substring search over "
+                + (FILLER_TODOS + 5) + " todos");
+    }
+
+    private static List<String> titles(List<TodoDTO> todos) {
+        return todos.stream().map(TodoDTO::getTitle).toList();
+    }
+}
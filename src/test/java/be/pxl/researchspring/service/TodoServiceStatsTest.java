@@ -0,0 +1,139 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.api.response.TodoStatsDTO;
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoCounts;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.impl.TodoStatsCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TodoServiceStatsTest {
+    private static final int THREADS = 8;
+    private static final int TOGGLES_PER_THREAD = 200;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private TodoStatsCounter statsCounter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        // Deleting through the repository bypasses the counters, so start from the database counts
+        todoRepository.deleteAll();
+        statsCounter.reconcile();
+    }
+
+    @Test
+    public void testCountersFollowEveryWritePath() {
+        List<Todo> todos = todoService.createAll(IntStream.range(0, 20).mapToObj(i -> "Stats_Todo_" + i).toList());
+        Todo single = todoService.create("Stats_Todo_Single");
+        assertMatchesDatabase();
+
+        todoService.updateCompleted(todos.get(0).getId(), true);
+        todoService.updateCompleted(todos.get(0).getId(), true);
+        todoService.updateCompleted(single.getId(), true, null);
+        assertMatchesDatabase();
+
+        todoService.updateCompleted(todos.subList(0, 10).stream().map(Todo::getId).toList(), true);
+        todoService.delete(todos.get(0).getId());
+        todoService.deleteAll(List.of(todos.get(1).getId(), todos.get(15).getId(), -1L));
+        assertMatchesDatabase();
+
+        todoService.deleteAllCompleted();
+        assertMatchesDatabase();
+        assertEquals(0, todoService.getStats().getCompleted());
+    }
+
+    @Test
+    public void testConcurrentTogglesKeepCountersExact() throws Exception {
+        List<Todo> todos = todoService.createAll(IntStream.range(0, THREADS).mapToObj(i -> "Stats_Toggle_" + i).toList());
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                executor.submit(() -> {
+                    for (int i = 0; i < TOGGLES_PER_THREAD; i++) {
+                        // Every thread flips every todo, so the previous state is contended
+                        todoService.updateCompleted(todos.get((thread + i) % THREADS).getId(), i % 2 == 0);
+                    }
+                });
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertMatchesDatabase();
+        System.out.println("Counters stayed exact across " + THREADS * TOGGLES_PER_THREAD
+                + " concurrent toggles in " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testReconciliationBetweenCommitAndCounterUpdateDoesNotCountTwice() {
+        // Reconciles from another thread once the insert has committed, before the counters see it
+        transactionTemplate.executeWithoutResult(status -> {
+            todoRepository.save(new Todo("Stats_Reconcile_Race"));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    CompletableFuture.runAsync(statsCounter::reconcile).join();
+                }
+            });
+            statsCounter.add(1, 0);
+        });
+
+        assertMatchesDatabase();
+    }
+
+    @Test
+    public void testReconciliationRunsUnderSteadyWrites() {
+        // Written past the counters, as another node would
+        todoRepository.save(new Todo("Stats_Other_Node"));
+        long skippedBefore = statsCounter.getSkippedRuns();
+        statsCounter.beginWrite();
+        try {
+            // A write is in flight on every run, as under steady traffic
+            for (int run = 0; run < statsCounter.getMaxSkippedRuns(); run++) {
+                statsCounter.reconcile();
+            }
+            assertEquals(todoRepository.count() - 1, todoService.getStats().getTotal(), "skipped runs leave the counters alone");
+            statsCounter.reconcile();
+        } finally {
+            statsCounter.endWrite();
+        }
+
+        assertEquals(statsCounter.getMaxSkippedRuns(), statsCounter.getSkippedRuns() - skippedBefore);
+        assertMatchesDatabase();
+    }
+
+    private void assertMatchesDatabase() {
+        TodoCounts counts = todoRepository.countTodos();
+        TodoStatsDTO stats = todoService.getStats();
+        assertEquals(counts.getTotal(), stats.getTotal(), "total");
+        assertEquals(counts.getCompleted(), stats.getCompleted(), "completed");
+        assertEquals(counts.getTotal() - counts.getCompleted(), stats.getOpen(), "open");
+    }
+}
@@ -0,0 +1,98 @@
+package be.pxl.researchspring.service;
+
+import be.pxl.researchspring.domain.Todo;
+import be.pxl.researchspring.repository.TodoRepository;
+import be.pxl.researchspring.service.impl.CompletionWriteBehindBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "todo.write-behind.enabled=true",
+        "todo.write-behind.flush-interval-ms=1000"
+})
+public class TodoServiceWriteBehindTest {
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private CompletionWriteBehindBuffer writeBehind;
+
+    @BeforeEach
+    public void setUp() {
+        todoRepository.deleteAll();
+    }
+
+    @Test
+    public void testTogglesAreVisibleBeforeFlushAndCoalescedAfter() throws InterruptedException {
+        Todo todo = todoService.create("Write_Behind_Todo");
+
+        for (int i = 0; i < 100; i++) {
+            todoService.updateCompleted(todo.getId(), i % 2 == 0);
+        }
+        // Last writer wins: the final toggle set completed to false
+        assertFalse(todoService.getTodo(todo.getId()).isCompleted());
+        todoService.updateCompleted(todo.getId(), true);
+        assertTrue(todoService.getTodo(todo.getId()).isCompleted(), "Reads should see the pending state");
+        assertTrue(todoService.getAllTodos().getFirst().isCompleted(), "Collection reads should see the pending state");
+
+        // A flush during the toggles may already have stored true; wait for the last toggle too
+        long deadline = System.currentTimeMillis() + 5_000;
+        Todo stored = todoRepository.findById(todo.getId()).orElseThrow();
+        while ((!stored.isCompleted() || writeBehind.getPendingCount() > 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            stored = todoRepository.findById(todo.getId()).orElseThrow();
+        }
+
+        assertEquals(0, writeBehind.getPendingCount(), "The buffer should drain");
+        assertTrue(stored.isCompleted(), "The buffered state should be flushed");
+        assertTrue(stored.getVersion() < 101, "Toggles should be coalesced into fewer updates");
+    }
+
+    @Test
+    public void testRejectedVersionedUpdateKeepsTheBufferedToggle() throws InterruptedException {
+        Todo todo = todoService.create("Buffered_Toggle_Todo");
+        todoService.updateCompleted(todo.getId(), true);
+        assertEquals(1, writeBehind.getPendingCount());
+
+        // 412: the stale update changes nothing, so the toggle clients were told about must survive
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> todoService.updateCompleted(todo.getId(), false, 5L));
+        assertEquals(1, writeBehind.getPendingCount(), "A rejected update should not drop the buffered toggle");
+        assertTrue(todoService.getTodo(todo.getId()).isCompleted());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        Todo stored = todoRepository.findById(todo.getId()).orElseThrow();
+        while (!stored.isCompleted() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            stored = todoRepository.findById(todo.getId()).orElseThrow();
+        }
+        assertTrue(stored.isCompleted(), "The buffered toggle should still be flushed");
+    }
+
+    @Test
+    public void testCommittedVersionedUpdateSupersedesTheBufferedToggle() throws InterruptedException {
+        Todo todo = todoService.create("Superseded_Toggle_Todo");
+        todoService.updateCompleted(todo.getId(), true);
+
+        assertEquals(1, todoService.updateCompleted(todo.getId(), false, 0L));
+        assertEquals(0, writeBehind.getPendingCount(), "The committed update should replace the buffered toggle");
+
+        // Longer than a flush interval: nothing may write the old toggle over the update
+        Thread.sleep(1_500);
+        Todo stored = todoRepository.findById(todo.getId()).orElseThrow();
+        assertFalse(stored.isCompleted());
+        assertEquals(1, stored.getVersion());
+    }
+}